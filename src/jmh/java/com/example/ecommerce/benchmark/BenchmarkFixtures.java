@@ -0,0 +1,25 @@
+package com.example.ecommerce.benchmark;
+
+import com.example.ecommerce.security.JwtVerifier;
+import com.example.ecommerce.util.JwtUtil;
+import org.springframework.test.util.ReflectionTestUtils;
+
+// Builds collaborators outside a Spring context, using the same settings as application.properties
+final class BenchmarkFixtures {
+    static final String JWT_SECRET = "2QamorOkO8ewd4R9pZ96XGmlRL+kJk+jdrYJhIMMc4w=";
+    static final long JWT_EXPIRATION = 3_600_000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "EXPIRATION_TIME", JWT_EXPIRATION);
+        return jwtUtil;
+    }
+
+    static JwtVerifier jwtVerifier() {
+        return new JwtVerifier(JWT_SECRET);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ecommerce.benchmark;
+
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.security.JwtVerificationCache;
+import com.example.ecommerce.security.JwtVerifier;
+import com.example.ecommerce.security.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// A cache hit has to cost well under a verification to be worth keeping: the verifier on its own, a hit keyed
+// by the token's signature segment as the cache does now, and a hit keyed by a hex SHA-256 digest of the whole
+// token as it used to be. The latter's cache has no per-entry expiry, which the old one did, so it understates
+// what that hit cost.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationCacheBenchmark {
+    private JwtVerifier jwtVerifier;
+    private JwtVerificationCache cache;
+    private Cache<String, VerifiedToken> digestKeyed;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtVerifier = BenchmarkFixtures.jwtVerifier();
+        cache = new JwtVerificationCache(jwtVerifier, 10_000, BenchmarkFixtures.JWT_EXPIRATION);
+        digestKeyed = Caffeine.newBuilder().maximumSize(10_000).build();
+        token = BenchmarkFixtures.jwtUtil().generateToken("benchmark-user", Set.of(UserRole.CUSTOMER, UserRole.SELLER));
+        cache.verify(token);
+        digestKeyed.put(sha256(token), jwtVerifier.verify(token));
+    }
+
+    @Benchmark
+    public VerifiedToken verifyWithoutCache() {
+        return jwtVerifier.verify(new String(token));
+    }
+
+    @Benchmark
+    public VerifiedToken signatureKeyedHit() {
+        return cache.verify(new String(token));
+    }
+
+    @Benchmark
+    public VerifiedToken sha256KeyedHit() {
+        VerifiedToken cached = digestKeyed.getIfPresent(sha256(new String(token)));
+        return cached != null && !cached.isExpired(Instant.now()) ? cached : null;
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
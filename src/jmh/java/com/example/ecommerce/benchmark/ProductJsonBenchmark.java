@@ -0,0 +1,41 @@
+package com.example.ecommerce.benchmark;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response body serialization of product lists, with the same defaults Spring MVC's converter uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+    @Param({"50", "500", "5000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<ProductDto> products;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        products = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            products.add(ProductDto.builder().id(i).name("Product " + i).price(BigDecimal.valueOf(i, 2))
+                    .description("Description of product " + i).categoryId(i % 20).build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.ecommerce.benchmark;
+
+import com.example.ecommerce.config.JwtAuthenticationFilter;
+import com.example.ecommerce.config.SecurityConfig;
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.security.JwtVerificationCache;
+import com.example.ecommerce.security.VerifiedToken;
+import com.example.ecommerce.util.JwtUtil;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Runs requests through the whole springSecurityFilterChain, as configured before and after the chain was made
+// stateless. Compare gc.alloc.rate.norm (bytes per request, from -prof gc) between the two chain params;
+// the mock request and response are allocated identically on both sides.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+    // Kept out of the contexts, which would otherwise try to resolve its @Value fields
+    private static final JwtUtil JWT_UTIL = BenchmarkFixtures.jwtUtil();
+
+    @Param({"session", "stateless"})
+    public String chain;
+
+    private AnnotationConfigApplicationContext context;
+    private Filter filterChainProxy;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        // Without a logging config the chain logs every request at DEBUG, which would dwarf what is measured here
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.INFO);
+        context = new AnnotationConfigApplicationContext("session".equals(chain) ? SessionChain.class : StatelessChain.class);
+        filterChainProxy = context.getBean("springSecurityFilterChain", Filter.class);
+        authorization = "Bearer " + JWT_UTIL.generateToken("benchmark-user", Set.of(UserRole.CUSTOMER, UserRole.SELLER));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public int authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = request("/api/products/page");
+        request.addHeader("Authorization", authorization);
+        return run(request);
+    }
+
+    // Denied requests are where the session chain allocated an HttpSession to remember the request
+    @Benchmark
+    public int anonymousDeniedRequest() throws Exception {
+        return run(request("/api/products/page"));
+    }
+
+    @Benchmark
+    public int publicRequest() throws Exception {
+        MockHttpServletRequest request = request("/swagger-ui/index.html");
+        request.addHeader("Authorization", authorization);
+        return run(request);
+    }
+
+    // The path matchers read the servlet path, which is the whole path under a DispatcherServlet mapped to "/"
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private int run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChainProxy.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    static JwtVerificationCache jwtVerificationCache() {
+        return new JwtVerificationCache(BenchmarkFixtures.jwtVerifier(), 10_000, BenchmarkFixtures.JWT_EXPIRATION);
+    }
+
+    @Configuration
+    @EnableWebSecurity
+    @Import(SecurityConfig.class)
+    static class StatelessChain {
+        @Bean
+        JwtVerificationCache jwtVerificationCache() {
+            return SecurityFilterChainBenchmark.jwtVerificationCache();
+        }
+
+        @Bean
+        JwtAuthenticationFilter jwtAuthenticationFilter() {
+            return new JwtAuthenticationFilter();
+        }
+    }
+
+    // The chain and filter as they were: default session-backed context and request cache, details per request
+    @Configuration
+    @EnableWebSecurity
+    static class SessionChain {
+        @Bean
+        SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+            JwtVerificationCache cache = jwtVerificationCache();
+            http
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> auth
+                    .requestMatchers("/api/auth/**", "/api/users", "/api/users/", "/swagger-ui/**",
+                            "/swagger-ui.html", "/v3/api-docs/**").permitAll()
+                    .anyRequest().authenticated())
+                .addFilterBefore(new OncePerRequestFilter() {
+                    @Override
+                    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                    FilterChain filterChain) throws IOException, ServletException {
+                        String header = request.getHeader("Authorization");
+                        if (header != null && header.startsWith("Bearer ")
+                                && SecurityContextHolder.getContext().getAuthentication() == null) {
+                            VerifiedToken verified = cache.verify(header.substring(7));
+                            List<SimpleGrantedAuthority> authorities = verified.roles().stream()
+                                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
+                                    .collect(Collectors.toList());
+                            UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
+                                    verified.username(), null, authorities);
+                            token.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                            SecurityContextHolder.getContext().setAuthentication(token);
+                        }
+                        filterChain.doFilter(request, response);
+                    }
+                }, UsernamePasswordAuthenticationFilter.class);
+            return http.build();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ecommerce.benchmark;
+
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import com.example.ecommerce.repository.OrderOutboxRepository;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.repository.projection.OrderItemView;
+import com.example.ecommerce.repository.projection.OrderSummaryView;
+import com.example.ecommerce.repository.projection.UserRoleRowView;
+import com.example.ecommerce.service.InventoryService;
+import com.example.ecommerce.service.impl.OrderServiceImpl;
+import com.example.ecommerce.service.impl.UserServiceImpl;
+import com.example.ecommerce.util.OptimisticRetry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Projection to DTO mapping of the list endpoints, with repositories stubbed to return fixed data. Products are
+// selected straight into ProductDto by the query, so there is no mapping left to measure for them.
+// Mocks are stub-only so Mockito does not record every invocation across millions of calls.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceMappingBenchmark {
+    @Param({"100", "1000"})
+    public int size;
+
+    private OrderServiceImpl orderService;
+    private UserServiceImpl userService;
+
+    private record SummaryView(Long getId, Long getUserId, LocalDateTime getOrderDate, String getStatus,
+                               Long getVersion)
+            implements OrderSummaryView {
+    }
+
+    private record ItemView(Long getId, Long getOrderId, Long getProductId, Integer getQuantity, BigDecimal getPrice,
+                            Long getVersion)
+            implements OrderItemView {
+    }
+
+    @Setup
+    public void setUp() {
+        List<UserRoleRowView> users = new ArrayList<>(size);
+        List<OrderSummaryView> orders = new ArrayList<>(size);
+        List<OrderItemView> items = new ArrayList<>(size * 3);
+        LocalDateTime orderDate = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (long i = 1; i <= size; i++) {
+            users.add(new UserRoleRowView(i, "user" + i, "user" + i + "@example.com", 0L, UserRole.CUSTOMER));
+            orders.add(new SummaryView(i, i, orderDate, "PLACED", 0L));
+            for (long j = 0; j < 3; j++) {
+                items.add(new ItemView(i * 3 + j, i, j + 1, 1, BigDecimal.TEN, 0L));
+            }
+        }
+
+        OrderRepository orderRepository = stub(OrderRepository.class);
+        when(orderRepository.findAllSummaries()).thenReturn(orders);
+        when(orderRepository.findAllItemViews()).thenReturn(items);
+        orderService = new OrderServiceImpl(orderRepository, stub(UserRepository.class), stub(ProductRepository.class),
+                stub(DailyRevenueWriter.class), stub(OrderOutboxRepository.class),
+                stub(InventoryService.class), stub(OptimisticRetry.class));
+
+        UserRepository userRepository = stub(UserRepository.class);
+        when(userRepository.findAllRoleRows()).thenReturn(users);
+        userService = new UserServiceImpl(userRepository, stub(PasswordEncoder.class), stub(OptimisticRetry.class));
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    @Benchmark
+    public Object ordersToDto() {
+        return orderService.getAllOrders();
+    }
+
+    @Benchmark
+    public Object usersToDto() {
+        return userService.getAllUsers();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ecommerce.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class ImportThroughputListener implements JobExecutionListener {
+    private static final Logger log = LoggerFactory.getLogger(ImportThroughputListener.class);
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        log.info("Product import {} finished with {}: read {}, wrote {}, filtered {}, skipped {} in {} ms ({} rows/s)",
+                jobExecution.getId(), jobExecution.getStatus(),
+                sum(jobExecution, Counter.READ), sum(jobExecution, Counter.WRITE),
+                sum(jobExecution, Counter.FILTER), sum(jobExecution, Counter.SKIP),
+                elapsed(jobExecution).toMillis(), Math.round(rowsPerSecond(jobExecution)));
+    }
+
+    public enum Counter { READ, WRITE, FILTER, SKIP }
+
+    // Only the worker executions are summed; the manager step already aggregates the same counts
+    public static long sum(JobExecution jobExecution, Counter counter) {
+        long total = 0;
+        for (StepExecution step : jobExecution.getStepExecutions()) {
+            if (!step.getStepName().startsWith(ProductImportJobConfig.WORKER_STEP + ":")) {
+                continue;
+            }
+            total += switch (counter) {
+                case READ -> step.getReadCount();
+                case WRITE -> step.getWriteCount();
+                case FILTER -> step.getFilterCount();
+                case SKIP -> step.getSkipCount();
+            };
+        }
+        return total;
+    }
+
+    public static double rowsPerSecond(JobExecution jobExecution) {
+        long millis = elapsed(jobExecution).toMillis();
+        return millis == 0 ? 0 : sum(jobExecution, Counter.WRITE) * 1000.0 / millis;
+    }
+
+    private static Duration elapsed(JobExecution jobExecution) {
+        if (jobExecution.getStartTime() == null) {
+            return Duration.ZERO;
+        }
+        LocalDateTime end = jobExecution.getEndTime() != null ? jobExecution.getEndTime() : LocalDateTime.now();
+        return Duration.between(jobExecution.getStartTime(), end);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.ecommerce.batch;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Splits every file into ranges of lines, so one large feed is read by several worker steps at once. Each partition
+// gets the file, the lines its reader skips (header included) and how many it reads. Lines are counted the way
+// FlatFileItemReader counts them for linesToSkip and maxItemCount: comment lines don't count.
+class LineRangePartitioner implements Partitioner {
+    static final String FILE_NAME = "fileName";
+    static final String LINES_TO_SKIP = "linesToSkip";
+    static final String LINE_COUNT = "lineCount";
+
+    private final Resource[] resources;
+    // Smaller ranges would cost a step execution for less than a chunk of work
+    private final int minLinesPerPartition;
+
+    LineRangePartitioner(Resource[] resources, int minLinesPerPartition) {
+        this.resources = resources;
+        this.minLinesPerPartition = Math.max(1, minLinesPerPartition);
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (Resource resource : resources) {
+            String fileName = fileName(resource);
+            int headerLines = ProductImportJobConfig.headerLines(fileName);
+            long lines = countLines(resource) - headerLines;
+            long linesPerPartition = Math.max(minLinesPerPartition, (lines + gridSize - 1) / Math.max(1, gridSize));
+            for (long start = 0; start < lines; start += linesPerPartition) {
+                ExecutionContext context = new ExecutionContext();
+                context.putString(FILE_NAME, fileName);
+                context.putLong(LINES_TO_SKIP, headerLines + start);
+                context.putLong(LINE_COUNT, Math.min(linesPerPartition, lines - start));
+                partitions.put("partition" + partitions.size(), context);
+            }
+        }
+        return partitions;
+    }
+
+    private static long countLines(Resource resource) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().filter(line -> !line.startsWith(ProductImportJobConfig.COMMENT_PREFIX)).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + resource, e);
+        }
+    }
+
+    private static String fileName(Resource resource) {
+        try {
+            return resource.getURL().toExternalForm();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not resolve " + resource, e);
+        }
+    }
+}
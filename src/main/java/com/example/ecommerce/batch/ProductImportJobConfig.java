@@ -0,0 +1,191 @@
+package com.example.ecommerce.batch;
+
+import com.example.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Imports supplier product feeds: every file is split into line ranges read by parallel worker steps, each in chunks
+// written with JDBC batch inserts
+@Configuration
+public class ProductImportJobConfig {
+    public static final String JOB_NAME = "productImportJob";
+    public static final String INPUT_PARAMETER = "input";
+    static final String MANAGER_STEP = "productImportStep";
+    static final String WORKER_STEP = "productImportWorkerStep";
+    static final String COMMENT_PREFIX = "#";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, price, description, category_id, version) VALUES (:name, :price, :description, :categoryId, 0)";
+
+    @Value("${catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${catalog.import.threads:4}")
+    private int threads;
+
+    @Value("${catalog.import.skip-limit:100}")
+    private int skipLimit;
+
+    @Bean
+    public Job productImportJob(JobRepository jobRepository, Step productImportStep, ProductService productService) {
+        return new JobBuilder(JOB_NAME, jobRepository)
+                .listener(new ImportThroughputListener())
+                .listener(new JobExecutionListener() {
+                    // Imported rows bypass ProductService, so the search index is rebuilt once they are committed
+                    @Override
+                    public void afterJob(JobExecution jobExecution) {
+                        if (ImportThroughputListener.sum(jobExecution, ImportThroughputListener.Counter.WRITE) > 0) {
+                            productService.rebuildSearchIndex();
+                        }
+                    }
+                })
+                .start(productImportStep)
+                .build();
+    }
+
+    @Bean
+    public Step productImportStep(JobRepository jobRepository, LineRangePartitioner productImportPartitioner,
+                                  Step productImportWorkerStep,
+                                  @Qualifier("productImportTaskExecutor") TaskExecutor productImportTaskExecutor) {
+        return new StepBuilder(MANAGER_STEP, jobRepository)
+                .partitioner(WORKER_STEP, productImportPartitioner)
+                .step(productImportWorkerStep)
+                .gridSize(threads)
+                .taskExecutor(productImportTaskExecutor)
+                .build();
+    }
+
+    // Every step execution commits its reader position, so a restart resumes each line range after its last
+    // committed chunk
+    @Bean
+    public Step productImportWorkerStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                        FlatFileItemReader<ProductImportRow> productImportReader,
+                                        ProductImportProcessor productImportProcessor,
+                                        JdbcBatchItemWriter<ProductImportRow> productImportWriter) {
+        return new StepBuilder(WORKER_STEP, jobRepository)
+                .<ProductImportRow, ProductImportRow>chunk(chunkSize, transactionManager)
+                .reader(productImportReader)
+                .processor(productImportProcessor)
+                .writer(productImportWriter)
+                .faultTolerant()
+                .skip(FlatFileParseException.class)
+                .skip(ValidationException.class)
+                .skipLimit(skipLimit)
+                .build();
+    }
+
+    @Bean
+    @JobScope
+    public LineRangePartitioner productImportPartitioner(
+            @Value("#{jobParameters['" + INPUT_PARAMETER + "']}") String input) throws IOException {
+        return new LineRangePartitioner(new PathMatchingResourcePatternResolver().getResources(input), chunkSize);
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemReader<ProductImportRow> productImportReader(
+            @Value("#{stepExecutionContext['" + LineRangePartitioner.FILE_NAME + "']}") String fileName,
+            @Value("#{stepExecutionContext['" + LineRangePartitioner.LINES_TO_SKIP + "']}") long linesToSkip,
+            @Value("#{stepExecutionContext['" + LineRangePartitioner.LINE_COUNT + "']}") long lineCount,
+            ObjectMapper objectMapper) throws MalformedURLException {
+        Resource resource = new UrlResource(fileName);
+        FlatFileItemReaderBuilder<ProductImportRow> builder = new FlatFileItemReaderBuilder<ProductImportRow>()
+                .name("productImportReader")
+                .resource(resource)
+                .comments(COMMENT_PREFIX)
+                .linesToSkip((int) linesToSkip)
+                .maxItemCount((int) lineCount);
+        if (headerLines(fileName) == 0) {
+            return builder
+                    .lineMapper((line, lineNumber) -> objectMapper.readValue(line, ProductImportRow.class))
+                    .build();
+        }
+        return builder
+                .delimited()
+                .names("name", "price", "description", "category")
+                .fieldSetMapper(fieldSet -> ProductImportRow.builder()
+                        .name(fieldSet.readString("name"))
+                        .price(fieldSet.readBigDecimal("price"))
+                        .description(fieldSet.readString("description"))
+                        .category(fieldSet.readString("category"))
+                        .build())
+                .build();
+    }
+
+    // JSON lines files have no header; CSV files start with one
+    static int headerLines(String fileName) {
+        String lowerName = fileName.toLowerCase();
+        return lowerName.endsWith(".jsonl") || lowerName.endsWith(".ndjson") ? 0 : 1;
+    }
+
+    // Step scoped because job scope is not visible on partition threads; costs one small query per partition
+    @Bean
+    @StepScope
+    public ProductImportProcessor productImportProcessor(JdbcTemplate jdbcTemplate) {
+        Map<String, Long> categoryIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM categories",
+                rs -> { categoryIds.put(ProductImportProcessor.key(rs.getString("name")), rs.getLong("id")); });
+        return new ProductImportProcessor(categoryIds);
+    }
+
+    @Bean
+    public JdbcBatchItemWriter<ProductImportRow> productImportWriter(DataSource dataSource) {
+        return new JdbcBatchItemWriterBuilder<ProductImportRow>()
+                .dataSource(dataSource)
+                .sql(INSERT_SQL)
+                .beanMapped()
+                .assertUpdates(true)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor productImportTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("product-import-");
+        return executor;
+    }
+
+    // Partitions spend most of their time in JDBC, so virtual threads only need the same concurrency cap
+    @Bean(name = "productImportTaskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualProductImportTaskExecutor(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.threadNamePrefix("product-import-").concurrencyLimit(threads).build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ecommerce.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+
+public class ProductImportProcessor implements ItemProcessor<ProductImportRow, ProductImportRow> {
+    private static final Logger log = LoggerFactory.getLogger(ProductImportProcessor.class);
+
+    // Category name (lower case) to id, loaded once per partition
+    private final Map<String, Long> categoryIds;
+
+    public ProductImportProcessor(Map<String, Long> categoryIds) {
+        this.categoryIds = Map.copyOf(categoryIds);
+    }
+
+    static String key(String categoryName) {
+        return categoryName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public ProductImportRow process(ProductImportRow row) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new ValidationException("Product name is required");
+        }
+        if (row.getPrice() == null || row.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+            throw new ValidationException("Product price must be zero or more: " + row.getName());
+        }
+        if (row.getCategory() == null || row.getCategory().isBlank()) {
+            return row;
+        }
+        Long categoryId = categoryIds.get(key(row.getCategory()));
+        if (categoryId == null) {
+            // Counted as filtered on the step rather than failing the chunk
+            log.debug("Skipping product {} with unknown category {}", row.getName(), row.getCategory());
+            return null;
+        }
+        row.setCategoryId(categoryId);
+        return row;
+    }
+}
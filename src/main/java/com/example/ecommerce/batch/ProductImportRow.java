@@ -0,0 +1,17 @@
+package com.example.ecommerce.batch;
+
+import lombok.*;
+import java.math.BigDecimal;
+
+// One line of a supplier feed; categoryId is filled in by ProductImportProcessor
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportRow {
+    private String name;
+    private BigDecimal price;
+    private String description;
+    private String category;
+    private Long categoryId;
+}
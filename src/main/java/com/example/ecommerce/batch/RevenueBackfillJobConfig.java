@@ -0,0 +1,63 @@
+package com.example.ecommerce.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// Rebuilds daily_product_revenue from order_items in one transaction. The incremental updates journaled by
+// DailyRevenueWriter keep it current afterwards; rerun after bulk changes made outside the services
+@Configuration
+public class RevenueBackfillJobConfig {
+    public static final String JOB_NAME = "revenueBackfillJob";
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueBackfillJobConfig.class);
+
+    private static final String BACKFILL_SQL = """
+            INSERT INTO daily_product_revenue (revenue_day, product_id, category_id, revenue, units)
+            SELECT CAST(o.order_date AS DATE), i.product_id, MAX(p.category_id), SUM(i.price * i.quantity), SUM(i.quantity)
+            FROM order_items i
+            JOIN orders o ON o.id = i.order_id
+            JOIN products p ON p.id = i.product_id
+            WHERE o.order_date IS NOT NULL AND o.status <> 'CANCELLED'
+            GROUP BY CAST(o.order_date AS DATE), i.product_id
+            """;
+
+    @Bean
+    public Job revenueBackfillJob(JobRepository jobRepository, Step revenueBackfillStep) {
+        return new JobBuilder(JOB_NAME, jobRepository)
+                .start(revenueBackfillStep)
+                .build();
+    }
+
+    @Bean
+    public Step revenueBackfillStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                    JdbcTemplate jdbcTemplate) {
+        return new StepBuilder("revenueBackfillStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    contribution.incrementWriteCount(rebuild(jdbcTemplate));
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    // Also used by the seed data generator, which bulk inserts order items with plain JDBC
+    public static int rebuild(JdbcTemplate jdbcTemplate) {
+        long start = System.nanoTime();
+        // Journaled deltas not folded yet are already part of order_items
+        jdbcTemplate.update("DELETE FROM daily_revenue_delta");
+        int removed = jdbcTemplate.update("DELETE FROM daily_product_revenue");
+        int inserted = jdbcTemplate.update(BACKFILL_SQL);
+        log.info("Revenue backfill replaced {} rows with {} in {} ms",
+                removed, inserted, (System.nanoTime() - start) / 1_000_000);
+        return inserted;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.service.CategoryService;
+import com.example.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.Map;
+
+// With catalog.snapshot.enabled=false the bean still exists but never holds a snapshot, so every listing is
+// loaded and serialized per request
+@Configuration
+public class CatalogSnapshotConfig {
+
+    @Bean
+    public CatalogSnapshots catalogSnapshots(CatalogVersion catalogVersion, ObjectMapper objectMapper,
+                                             ProductService productService, CategoryService categoryService,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${catalog.snapshot.debounce-ms:200}") long debounceMillis,
+                                             @Value("${catalog.snapshot.max-staleness-ms:1000}") long maxStalenessMillis) {
+        return new CatalogSnapshots(catalogVersion, objectMapper, Map.of(
+                CatalogSnapshots.Listing.PRODUCTS, productService::getAllProducts,
+                CatalogSnapshots.Listing.CATEGORIES, categoryService::getAllCategories), meterRegistry, debounceMillis,
+                maxStalenessMillis);
+    }
+
+    // Rebuilds call into the services, so they only start once the context is fully built
+    @Bean
+    @ConditionalOnProperty(name = "catalog.snapshot.enabled", matchIfMissing = true)
+    public ApplicationListener<ApplicationReadyEvent> catalogSnapshotStarter(CatalogSnapshots snapshots,
+                                                                             TaskScheduler taskScheduler) {
+        return event -> snapshots.start(taskScheduler);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ecommerce.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Catalog listings serialized ahead of time, as JSON and gzipped JSON, so a request only copies bytes out.
+// Writes bump CatalogVersion, which schedules one rebuild debounce-ms later; further writes in the meantime
+// ride along with it. Under steady writes the latest snapshot is nearly always a version behind, so it is still
+// handed out for up to max-staleness-ms after the first write it misses, under its own version's validators.
+// Past that, and with a bound of 0 right after any write, listings are served the regular way until a rebuild
+// catches up.
+@Slf4j
+public class CatalogSnapshots implements AutoCloseable {
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final Map<Listing, Supplier<?>> loaders;
+    private final long debounceMillis;
+    private final long maxStalenessNanos;
+    private final Map<Listing, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Listing, Long> supersededAt = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final Timer rebuildTimer;
+    private volatile TaskScheduler scheduler;
+    private volatile ScheduledFuture<?> pending;
+    private volatile boolean closed;
+
+    public CatalogSnapshots(CatalogVersion catalogVersion, ObjectMapper objectMapper, Map<Listing, Supplier<?>> loaders,
+                            MeterRegistry meterRegistry, long debounceMillis, long maxStalenessMillis) {
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.loaders = new EnumMap<>(loaders);
+        this.debounceMillis = debounceMillis;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+        this.rebuildTimer = Timer.builder("catalog.snapshot.rebuild")
+                .description("Time to load and serialize every catalog listing snapshot")
+                .register(meterRegistry);
+        catalogVersion.onChange(this::superseded);
+    }
+
+    // Builds the first snapshots and keeps them up to date from then on, rebuilding on the scheduler
+    public void start(TaskScheduler scheduler) {
+        this.scheduler = scheduler;
+        catalogVersion.onChange(this::requestRebuild);
+        requestRebuild();
+    }
+
+    // Null when none was built, or the latest one has been older than the stamp for longer than max-staleness-ms
+    public Snapshot get(Listing listing, CatalogVersion.Stamp stamp) {
+        Snapshot snapshot = snapshots.get(listing);
+        if (snapshot == null || snapshot.version() >= stamp.version()) {
+            return snapshot;
+        }
+        Long since = supersededAt.get(listing);
+        return since != null && System.nanoTime() - since <= maxStalenessNanos ? snapshot : null;
+    }
+
+    // Staleness counts from the first write a snapshot misses
+    private void superseded() {
+        long now = System.nanoTime();
+        snapshots.keySet().forEach(listing -> supersededAt.putIfAbsent(listing, now));
+    }
+
+    void requestRebuild() {
+        if (!closed && rebuildPending.compareAndSet(false, true)) {
+            pending = scheduler.schedule(this::rebuild, Instant.now().plusMillis(debounceMillis));
+        }
+    }
+
+    // The stamp is taken before loading, so each snapshot holds data at least as new as its version
+    void rebuild() {
+        rebuildPending.set(false);
+        CatalogVersion.Stamp stamp = catalogVersion.current();
+        rebuildTimer.record(() -> loaders.forEach((listing, loader) -> {
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(loader.get());
+                snapshots.put(listing, new Snapshot(stamp, json, gzip(json)));
+                // A write since the stamp was taken already left this one behind. Losing the race with such a
+                // write only means the snapshot is withheld until the next rebuild.
+                if (catalogVersion.current().version() == stamp.version()) {
+                    supersededAt.remove(listing);
+                } else {
+                    supersededAt.put(listing, System.nanoTime());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not build the {} snapshot for catalog version {}, serving it uncached: {}",
+                        listing, stamp.version(), e.getMessage());
+            }
+        }));
+    }
+
+    // Built once per change, so the slowest level is worth it
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledFuture<?> scheduled = pending;
+        if (scheduled != null) {
+            scheduled.cancel(true);
+        }
+    }
+
+    public enum Listing {
+        PRODUCTS, CATEGORIES
+    }
+
+    // The arrays are shared by every request and must never be written to
+    public record Snapshot(CatalogVersion.Stamp stamp, byte[] json, byte[] gzip) {
+        public long version() {
+            return stamp.version();
+        }
+    }
+}
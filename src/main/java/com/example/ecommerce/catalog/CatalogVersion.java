@@ -0,0 +1,83 @@
+package com.example.ecommerce.catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+// One counter for everything under /api/products and /api/categories, bumped by each write that changes them.
+// Listings are tagged with the current stamp so an unchanged catalog can be answered with 304 straight from
+// memory. The counter starts over with the process, so the start time goes into the ETag as well: a tag handed
+// out before a restart never matches again.
+@Component("catalogVersion") // Named for the @catalogVersion reference in CategoryServiceImpl's cache key
+public class CatalogVersion {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicReference<Stamp> current = new AtomicReference<>(
+            new Stamp(0, Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+    private final CacheControl cacheControl;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    // The listings are the same for every caller, so shared caches may keep them too. With a max age of 0 each
+    // use is revalidated, which costs a 304 as long as nothing changed.
+    public CatalogVersion(@Value("${catalog.http.max-age-seconds:0}") long maxAgeSeconds) {
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic().mustRevalidate();
+    }
+
+    // Take the stamp before reading the catalog; the rows read afterwards are then at least this new
+    public Stamp current() {
+        return current.get();
+    }
+
+    public String etag(Stamp stamp) {
+        return etag(stamp, false);
+    }
+
+    // Gzipped bytes are a different representation of the same listing and need a strong tag of their own
+    public String etag(Stamp stamp, boolean gzip) {
+        return "\"" + epoch + "-" + stamp.version() + (gzip ? "-gz" : "") + "\"";
+    }
+
+    public CacheControl cacheControl() {
+        return cacheControl;
+    }
+
+    // Run on the writing thread right after each bump, so listeners should only hand the work off
+    public void onChange(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    // Inside a transaction the bump waits for the commit. Bumping earlier would let a concurrent read tag the
+    // old rows with the new version, and that client would then get 304s for data it never saw.
+    public void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump();
+            }
+        });
+    }
+
+    // Last-Modified is the clock at the write and never later (RFC 9110 8.8.2.1), so writes within the same second
+    // share it. The ETag is what tells them apart; a client revalidating with If-Modified-Since alone misses a
+    // second write within the same second.
+    private void bump() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        current.updateAndGet(previous -> new Stamp(previous.version() + 1, now));
+        listeners.forEach(Runnable::run);
+    }
+
+    public record Stamp(long version, Instant lastModified) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ecommerce.config;
+
+import org.springframework.boot.autoconfigure.batch.BatchTaskExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class BatchConfig {
+    static final int LAUNCH_CONCURRENCY = 2;
+
+    // Makes the auto-configured JobLauncher return as soon as a job is started instead of blocking the request
+    @Bean
+    @BatchTaskExecutor
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor batchTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(LAUNCH_CONCURRENCY);
+        executor.setMaxPoolSize(LAUNCH_CONCURRENCY);
+        executor.setThreadNamePrefix("batch-launch-");
+        return executor;
+    }
+
+    // With spring.threads.virtual.enabled the builder creates a virtual thread per task
+    @Bean(name = "batchTaskExecutor")
+    @BatchTaskExecutor
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualBatchTaskExecutor(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.threadNamePrefix("batch-launch-").concurrencyLimit(LAUNCH_CONCURRENCY).build();
+    }
+}
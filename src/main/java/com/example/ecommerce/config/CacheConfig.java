@@ -0,0 +1,13 @@
+package com.example.ecommerce.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Cache sizes and TTLs are set through spring.cache.caffeine.spec in application.properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY = "category";
+    public static final String PRODUCT = "product";
+}
@@ -0,0 +1,38 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Slf4j
+@Configuration
+public class DataSourcePoolConfig {
+    static final int MIN_POOL_SIZE = 4;
+
+    // With datasource.pool.connections-per-core set, Hikari pools get that many connections per CPU core as a
+    // fixed-size pool instead of Hikari's flat default of 10. Explicit spring.datasource.hikari sizes still win.
+    // Containers often report one or two cores, hence the floor. Runs after @ConfigurationProperties binding.
+    @Bean
+    public static BeanPostProcessor cpuSizedPoolPostProcessor(Environment environment) {
+        int connectionsPerCore = environment.getProperty("datasource.pool.connections-per-core", Integer.class, 0);
+        boolean explicitMaximum = environment.containsProperty("spring.datasource.hikari.maximum-pool-size");
+        boolean explicitMinimum = environment.containsProperty("spring.datasource.hikari.minimum-idle");
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (connectionsPerCore > 0 && bean instanceof HikariDataSource pool && !explicitMaximum) {
+                    int size = Math.max(MIN_POOL_SIZE, Runtime.getRuntime().availableProcessors() * connectionsPerCore);
+                    pool.setMaximumPoolSize(size);
+                    if (!explicitMinimum) {
+                        pool.setMinimumIdle(size);
+                    }
+                    log.info("Sized connection pool {} to {} connections ({} per core)", beanName, size, connectionsPerCore);
+                }
+                return bean;
+            }
+        };
+    }
+}
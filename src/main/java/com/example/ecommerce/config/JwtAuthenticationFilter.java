@@ -1,12 +1,12 @@
 package com.example.ecommerce.config;
 
-import com.example.ecommerce.util.JwtUtil;
-import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.security.JwtVerificationCache;
+import com.example.ecommerce.security.VerifiedToken;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -15,38 +15,63 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    // TOKENLESS_PATHS are exact paths or "prefix/**"; plain string checks avoid allocating per request
+    private static final String[] SKIPPED_PREFIXES = Arrays.stream(SecurityConfig.TOKENLESS_PATHS)
+            .filter(path -> path.endsWith("/**"))
+            .map(path -> path.substring(0, path.length() - 3))
+            .toArray(String[]::new);
+    private static final String[] SKIPPED_EXACT = Arrays.stream(SecurityConfig.TOKENLESS_PATHS)
+            .filter(path -> !path.endsWith("/**"))
+            .toArray(String[]::new);
+
+    // Same storage as SecurityConfig uses, so an ERROR dispatch of this request still sees the principal
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtVerificationCache jwtVerificationCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int offset = request.getContextPath().length();
+        for (String prefix : SKIPPED_PREFIXES) {
+            if (uri.startsWith(prefix, offset)
+                    && (uri.length() == offset + prefix.length() || uri.charAt(offset + prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        for (String exact : SKIPPED_EXACT) {
+            if (uri.length() == offset + exact.length() && uri.startsWith(exact, offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedToken verified = null;
             try {
-                username = jwtUtil.extractUsername(token);
+                // Parses and verifies the token at most once, then serves repeats from the cache
+                verified = jwtVerificationCache.verify(authHeader.substring(7));
             } catch (Exception e) {
-                // Invalid token, ignore and continue
+                // Invalid or expired token, ignore and continue
             }
-        }
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(token, username)) {
-                List<UserRole> roles = jwtUtil.extractRoles(token);
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
-                        .collect(Collectors.toList());
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username, null, authorities);
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (verified != null) {
+                // Authorities come from the interned set for the token's role mask. No WebAuthenticationDetails:
+                // nothing reads the remote address or session id of a token login
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(verified.authentication());
+                SecurityContextHolder.setContext(context);
+                securityContextRepository.saveContext(context, request, response);
             }
         }
         filterChain.doFilter(request, response);
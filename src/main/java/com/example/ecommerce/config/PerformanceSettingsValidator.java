@@ -0,0 +1,105 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Looks for settings known to slow down the request path once all beans exist, before the web server starts.
+// With startup.performance-check=fail (the prod profile) the application refuses to start; with warn, the
+// default, each finding is logged; off skips the check.
+@Slf4j
+@Component
+public class PerformanceSettingsValidator implements SmartInitializingSingleton {
+    private final JpaProperties jpaProperties;
+    private final List<DataSource> dataSources;
+    private final String mode;
+
+    public PerformanceSettingsValidator(JpaProperties jpaProperties, List<DataSource> dataSources,
+                                        @Value("${startup.performance-check:warn}") String mode) {
+        this.jpaProperties = jpaProperties;
+        this.dataSources = dataSources;
+        this.mode = mode;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if ("off".equals(mode)) {
+            return;
+        }
+        List<String> problems = findProblems();
+        if (problems.isEmpty()) {
+            return;
+        }
+        if ("fail".equals(mode)) {
+            throw new IllegalStateException("Settings known to hurt performance are active: " + String.join("; ", problems));
+        }
+        problems.forEach(problem -> log.warn("Performance check: {}", problem));
+    }
+
+    List<String> findProblems() {
+        List<String> problems = new ArrayList<>();
+        if (jpaProperties.isShowSql() || isTrue("hibernate.show_sql")) {
+            problems.add("spring.jpa.show-sql writes every statement to stdout on the request thread");
+        }
+        if (LoggerFactory.getLogger("org.hibernate.SQL").isDebugEnabled()
+                || LoggerFactory.getLogger("org.hibernate.orm.jdbc.bind").isTraceEnabled()) {
+            problems.add("org.hibernate.SQL or parameter binding is logged for every statement");
+        }
+        if (!Boolean.FALSE.equals(jpaProperties.getOpenInView())) {
+            problems.add("spring.jpa.open-in-view keeps each request's EntityManager and connection until the response is written");
+        }
+        String batchSize = jpaProperties.getProperties().get("hibernate.jdbc.batch_size");
+        if (batchSize == null || batchSize(batchSize) <= 1) {
+            problems.add("hibernate.jdbc.batch_size is unset, so every insert and update is its own round trip");
+        }
+        if (!isTrue("hibernate.order_inserts") || !isTrue("hibernate.order_updates")) {
+            problems.add("hibernate.order_inserts/order_updates are off, which splits JDBC batches at every entity type change");
+        }
+        if (isTrue("hibernate.generate_statistics")) {
+            problems.add("hibernate.generate_statistics adds bookkeeping to every session and query");
+        }
+        for (HikariDataSource pool : pools()) {
+            if (pool.getLeakDetectionThreshold() > 0) {
+                problems.add("leak detection on pool " + pool.getPoolName() + " captures a stack trace on every connection checkout");
+            }
+        }
+        return problems;
+    }
+
+    // Hibernate would reject a value that isn't a number anyway; here it just counts as no batching
+    private static int batchSize(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private boolean isTrue(String hibernateProperty) {
+        String value = jpaProperties.getProperties().get(hibernateProperty);
+        return value != null && Boolean.parseBoolean(value.trim());
+    }
+
+    // The routing DataSource and the primary pool unwrap to the same HikariDataSource
+    private Set<HikariDataSource> pools() {
+        Set<HikariDataSource> pools = new LinkedHashSet<>();
+        for (DataSource dataSource : dataSources) {
+            HikariDataSource pool = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+            if (pool != null) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// The one scheduler for background work: stock sweeps, revenue folding, the outbox relay, catalog snapshot
+// rebuilds and the replica heartbeat and sync. Components schedule on it and cancel their own tasks on close; the
+// pool itself is shut down after them. Replaces the one Boot would auto-configure, so @Scheduled runs here too.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("background-");
+        scheduler.setDaemon(true);
+        return scheduler;
+    }
+}
@@ -1,43 +1,86 @@
 package com.example.ecommerce.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.annotation.web.configurers.LogoutConfigurer;
+import org.springframework.security.config.annotation.web.configurers.RequestCacheConfigurer;
+import org.springframework.security.config.annotation.web.configurers.ServletApiConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Map;
+
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
+    // Routes that never need a principal, so JwtAuthenticationFilter skips them entirely.
+    // /api/users is public only for registration; its other methods check roles and still need the token.
+    static final String[] TOKENLESS_PATHS = {
+            "/api/auth/**",
+            "/swagger-ui/**",
+            "/swagger-ui.html",
+            "/v3/api-docs/**"
+    };
+
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    // New hashes are stored as {bcrypt}... at the configured cost. Older hashes without an id prefix are
+    // still accepted, and AuthServiceImpl rehashes any hash whose id or cost is out of date on login
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
+            // Every request carries its own token: never create or read an HttpSession, keep the context
+            // for the current request only, and don't remember denied requests for a login redirect.
+            // Session management is disabled rather than set to STATELESS: the policy only switches the
+            // defaults configured explicitly here, and it also adds a SessionManagementFilter that builds an
+            // anonymous Authentication for every token-less request just to find there is no session to manage
+            .sessionManagement(AbstractHttpConfigurer::disable)
+            .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+            .requestCache(RequestCacheConfigurer::disable)
+            .logout(LogoutConfigurer::disable)
+            // Nothing reads getUserPrincipal()/isUserInRole(), so skip wrapping every request for them
+            .servletApi(ServletApiConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers(TOKENLESS_PATHS).permitAll()
                 .requestMatchers(
-                        "/api/auth/**",
-                        "/api/auth/login",
                         "/api/users",           // Allow POST for registration
-                        "/api/users/",          // Sometimes needed for trailing slash
-                        "/swagger-ui/**",
-                        "/swagger-ui.html",
-                        "/v3/api-docs/**"
+                        "/api/users/"           // Sometimes needed for trailing slash
                 ).permitAll()
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
+
+    // The filter is a @Component for injection only; it must run inside the security chain, not a second
+    // time as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
@@ -1,5 +1,7 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.catalog.CatalogSnapshots;
+import com.example.ecommerce.catalog.CatalogVersion;
 import com.example.ecommerce.dto.CategoryDto;
 import com.example.ecommerce.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,7 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @Tag(name = "Category API", description = "Operations related to product categories")
 @RestController
@@ -21,6 +23,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoryController {
     private final CategoryService categoryService;
+    private final CatalogVersion catalogVersion;
+    private final CatalogSnapshots catalogSnapshots;
 
     @Operation(summary = "Create a new category", description = "Creates a new product category.",
         security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
@@ -56,8 +60,8 @@ public class CategoryController {
         @ApiResponse(responseCode = "200", description = "List of categories", content = @Content(schema = @Schema(implementation = CategoryDto.class)))
     })
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<?> getAllCategories(WebRequest request) {
+        return ETags.catalog(request, catalogVersion, catalogSnapshots, CatalogSnapshots.Listing.CATEGORIES, categoryService::getAllCategories);
     }
 
     @Operation(summary = "Update category", description = "Update an existing product category.",
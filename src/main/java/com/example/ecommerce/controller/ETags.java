@@ -0,0 +1,172 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.catalog.CatalogSnapshots;
+import com.example.ecommerce.catalog.CatalogVersion;
+import com.example.ecommerce.exception.PreconditionFailedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Entity versions as strong ETags: responses carry "<version>", and an If-Match header on PUT or PATCH is turned
+// back into the versions the update may start from. Catalog listings are tagged with the catalog-wide
+// CatalogVersion instead.
+final class ETags {
+    private ETags() {
+    }
+
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (version != null) {
+            response.eTag(version.toString());
+        }
+        return response.body(body);
+    }
+
+    // Answered with 304 from memory whenever the client already holds what it would be sent. If-None-Match is
+    // compared against the plain and gzip tags of both the current stamp and the snapshot being served, and wins
+    // over If-Modified-Since when both are sent. Otherwise the pre-serialized snapshot is written as is in the
+    // encoding asked for, and without one the listing is loaded and serialized as usual.
+    static ResponseEntity<?> catalog(WebRequest request, CatalogVersion catalogVersion, CatalogSnapshots snapshots,
+                                     CatalogSnapshots.Listing listing, Supplier<?> body) {
+        CatalogVersion.Stamp current = catalogVersion.current();
+        CatalogSnapshots.Snapshot snapshot = snapshots.get(listing, current);
+        // A snapshot may lag the current stamp by up to max-staleness-ms, so it goes out under its own stamp
+        CatalogVersion.Stamp served = snapshot != null ? snapshot.stamp() : current;
+        boolean gzip = snapshot != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = catalogVersion.etag(served, gzip);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : entityTags(ifNoneMatch, true)) {
+                // A client holding the current listing is never sent back to an older snapshot
+                if (tag.equals(catalogVersion.etag(current, false)) || tag.equals(catalogVersion.etag(current, true))) {
+                    return notModified(catalogVersion, tag, current);
+                }
+                if (tag.equals(catalogVersion.etag(served, false)) || tag.equals(catalogVersion.etag(served, true))) {
+                    return notModified(catalogVersion, tag, served);
+                }
+                if (tag.equals("*")) {
+                    return notModified(catalogVersion, etag, served);
+                }
+            }
+        } else if (unmodifiedSince(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE), served)) {
+            return notModified(catalogVersion, etag, served);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(served.lastModified().toEpochMilli())
+                .cacheControl(catalogVersion.cacheControl())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (snapshot == null) {
+            return response.body(body.get());
+        }
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    // The validators describe the representation the client holds
+    private static ResponseEntity<?> notModified(CatalogVersion catalogVersion, String etag, CatalogVersion.Stamp stamp) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .lastModified(stamp.lastModified().toEpochMilli())
+                .cacheControl(catalogVersion.cacheControl())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    private static boolean unmodifiedSince(String ifModifiedSince, CatalogVersion.Stamp stamp) {
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            Instant since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return !stamp.lastModified().isAfter(since);
+        } catch (DateTimeParseException e) {
+            // An unreadable date is ignored, as if it had not been sent
+            return false;
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip") || name.equals("*")) {
+                return parts.length == 1 || !parts[1].trim().matches("(?i)q\\s*=\\s*0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // Null without a header or for "*", which only asks for the resource to exist. Otherwise the versions named by
+    // the comma-separated list of tags: weak tags never match for If-Match, and neither do tags this resource
+    // never hands out, so a header with none left can't be met.
+    static Set<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        for (String tag : entityTags(ifMatch, false)) {
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tag = tag.substring(1, tag.length() - 1);
+            }
+            try {
+                versions.add(Long.parseLong(tag));
+            } catch (NumberFormatException e) {
+                // Someone else's tag; it can't match
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not name a version of this resource");
+        }
+        return versions;
+    }
+
+    // The tags of an If-Match or If-None-Match list, quotes kept. Weak tags are dropped, or kept without their W/
+    // for the weak comparison If-None-Match uses.
+    private static List<String> entityTags(String header, boolean includeWeak) {
+        List<String> tags = new ArrayList<>();
+        int i = 0;
+        while (i < header.length()) {
+            char c = header.charAt(i);
+            if (c == ',' || Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            boolean weak = header.startsWith("W/", i);
+            int start = weak ? i + 2 : i;
+            // A quoted tag may itself contain commas
+            int end = start < header.length() && header.charAt(start) == '"'
+                    ? header.indexOf('"', start + 1) + 1
+                    : header.indexOf(',', start);
+            if (end <= 0) {
+                end = header.length();
+            }
+            String tag = header.substring(start, end).trim();
+            i = end;
+            if (!weak || includeWeak) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+}
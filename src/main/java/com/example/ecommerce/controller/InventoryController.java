@@ -0,0 +1,51 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.StockAdjustmentDto;
+import com.example.ecommerce.dto.StockDto;
+import com.example.ecommerce.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Tag(name = "Inventory API", description = "Stock levels of products")
+@RestController
+@RequestMapping("/api/products/{id}/stock")
+@RequiredArgsConstructor
+public class InventoryController {
+    private final InventoryService inventoryService;
+
+    @Operation(summary = "Get stock", description = "Units of the product that can still be ordered; available is null when the product isn't stock-tracked.",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stock level", content = @Content(schema = @Schema(implementation = StockDto.class))),
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+    })
+    @PreAuthorize("hasAnyRole('ADMIN','SELLER','SUPPORT')")
+    @GetMapping
+    public ResponseEntity<StockDto> getStock(@Parameter(description = "ID of the product") @PathVariable Long id) {
+        return ResponseEntity.ok(inventoryService.getStock(id));
+    }
+
+    @Operation(summary = "Adjust stock", description = "Adds received units or writes units off. The first adjustment starts tracking the product's stock.",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stock level after the adjustment", content = @Content(schema = @Schema(implementation = StockDto.class))),
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Fewer units available than written off", content = @Content)
+    })
+    @PreAuthorize("hasAnyRole('ADMIN','SELLER')")
+    @PostMapping
+    public ResponseEntity<StockDto> adjustStock(
+        @Parameter(description = "ID of the product") @PathVariable Long id,
+        @RequestBody StockAdjustmentDto adjustment) {
+        return ResponseEntity.ok(inventoryService.adjustStock(id, adjustment.getDelta()));
+    }
+}
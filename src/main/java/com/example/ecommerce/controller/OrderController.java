@@ -1,5 +1,6 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.dto.CheckoutRequestDto;
 import com.example.ecommerce.dto.OrderDto;
 import com.example.ecommerce.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,6 +11,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -39,6 +41,25 @@ public class OrderController {
         return ResponseEntity.ok(orderService.createOrder(orderDto));
     }
 
+    @Operation(summary = "Check out an order with its items", description = "Creates the order and all of its items in one transaction. Item prices are taken from the current product prices.",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Order placed successfully", content = @Content(schema = @Schema(implementation = OrderDto.class))),
+        @ApiResponse(responseCode = "400", description = "Order has no items or an invalid quantity", content = @Content),
+        @ApiResponse(responseCode = "404", description = "User or product not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Not enough stock for one of the products", content = @Content)
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+        description = "Order with its orderItems; item prices are ignored",
+        required = true,
+        content = @Content(schema = @Schema(implementation = CheckoutRequestDto.class))
+    )
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/checkout")
+    public ResponseEntity<OrderDto> checkout(@RequestBody CheckoutRequestDto request) {
+        return ResponseEntity.ok(orderService.checkout(request));
+    }
+
     @Operation(summary = "Get order by ID", description = "Retrieve an order by its unique ID.",
         security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
     @ApiResponses({
@@ -48,7 +69,8 @@ public class OrderController {
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/{id}")
     public ResponseEntity<OrderDto> getOrder(@Parameter(description = "ID of the order to retrieve") @PathVariable Long id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+        OrderDto order = orderService.getOrderById(id);
+        return ETags.ok(order, order != null ? order.getVersion() : null);
     }
 
     @Operation(summary = "Get all orders", description = "Retrieve a list of all orders for the authenticated user.",
@@ -66,7 +88,8 @@ public class OrderController {
         security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Order updated successfully", content = @Content(schema = @Schema(implementation = OrderDto.class))),
-        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
         description = "Order update payload",
@@ -77,8 +100,10 @@ public class OrderController {
     @PutMapping("/{id}")
     public ResponseEntity<OrderDto> updateOrder(
         @Parameter(description = "ID of the order to update") @PathVariable Long id,
-        @RequestBody OrderDto orderDto) {
-        return ResponseEntity.ok(orderService.updateOrder(id, orderDto));
+        @RequestBody OrderDto orderDto,
+        @Parameter(description = "ETag from a previous read; the update fails with 412 if the order changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        OrderDto order = orderService.updateOrder(id, orderDto, ETags.expectedVersions(ifMatch));
+        return ETags.ok(order, order != null ? order.getVersion() : null);
     }
 
     @Operation(summary = "Delete order", description = "Delete an order by its ID.",
@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -39,6 +40,23 @@ public class OrderItemController {
         return ResponseEntity.ok(orderItemService.createOrderItem(orderItemDto));
     }
 
+    @Operation(summary = "Create order items in bulk", description = "Creates many order items in a single transaction using JDBC batch inserts (admin/support only).",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Order items created successfully", content = @Content(schema = @Schema(implementation = OrderItemDto.class))),
+        @ApiResponse(responseCode = "404", description = "A referenced order or product does not exist", content = @Content)
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+        description = "Order item creation payloads",
+        required = true,
+        content = @Content(schema = @Schema(implementation = OrderItemDto.class))
+    )
+    @PreAuthorize("hasAnyRole('ADMIN','SUPPORT')")
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderItemDto>> createOrderItems(@RequestBody List<OrderItemDto> orderItemDtos) {
+        return ResponseEntity.ok(orderItemService.createOrderItems(orderItemDtos));
+    }
+
     @Operation(summary = "Get order item by ID", description = "Retrieve an order item by its unique ID (admin/support only).",
         security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
     @ApiResponses({
@@ -48,7 +66,8 @@ public class OrderItemController {
     @PreAuthorize("hasAnyRole('ADMIN','SUPPORT')")
     @GetMapping("/{id}")
     public ResponseEntity<OrderItemDto> getOrderItem(@Parameter(description = "ID of the order item to retrieve") @PathVariable Long id) {
-        return ResponseEntity.ok(orderItemService.getOrderItemById(id));
+        OrderItemDto orderItem = orderItemService.getOrderItemById(id);
+        return ETags.ok(orderItem, orderItem != null ? orderItem.getVersion() : null);
     }
 
     @Operation(summary = "Get all order items", description = "Retrieve a list of all order items (admin/support only).",
@@ -66,7 +85,8 @@ public class OrderItemController {
         security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Order item updated successfully", content = @Content(schema = @Schema(implementation = OrderItemDto.class))),
-        @ApiResponse(responseCode = "404", description = "Order item not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Order item not found", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
         description = "Order item update payload",
@@ -77,8 +97,10 @@ public class OrderItemController {
     @PutMapping("/{id}")
     public ResponseEntity<OrderItemDto> updateOrderItem(
         @Parameter(description = "ID of the order item to update") @PathVariable Long id,
-        @RequestBody OrderItemDto orderItemDto) {
-        return ResponseEntity.ok(orderItemService.updateOrderItem(id, orderItemDto));
+        @RequestBody OrderItemDto orderItemDto,
+        @Parameter(description = "ETag from a previous read; the update fails with 412 if the order item changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        OrderItemDto orderItem = orderItemService.updateOrderItem(id, orderItemDto, ETags.expectedVersions(ifMatch));
+        return ETags.ok(orderItem, orderItem != null ? orderItem.getVersion() : null);
     }
 
     @Operation(summary = "Delete order item", description = "Delete an order item by its ID (admin/support only).",
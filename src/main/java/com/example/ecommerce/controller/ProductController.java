@@ -1,11 +1,21 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.catalog.CatalogSnapshots;
+import com.example.ecommerce.catalog.CatalogVersion;
 import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.ProductPageDto;
+import com.example.ecommerce.dto.ProductSearchResultDto;
 import com.example.ecommerce.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,6 +24,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @Tag(name = "Product API", description = "Operations related to products")
@@ -22,6 +34,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final CatalogSnapshots catalogSnapshots;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Create a new product", description = "Creates a new product.",
         security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
@@ -49,7 +64,8 @@ public class ProductController {
     @PreAuthorize("hasAnyRole('ADMIN','SELLER','SUPPORT')")
     @GetMapping("/{id}")
     public ResponseEntity<ProductDto> getProduct(@Parameter(description = "ID of the product to retrieve") @PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+        ProductDto product = productService.getProductById(id);
+        return ETags.ok(product, product != null ? product.getVersion() : null);
     }
 
     @Operation(summary = "Get all products", description = "Retrieve a list of all products.")
@@ -57,15 +73,72 @@ public class ProductController {
         @ApiResponse(responseCode = "200", description = "List of products", content = @Content(schema = @Schema(implementation = ProductDto.class)))
     })
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<?> getAllProducts(WebRequest request) {
+        return ETags.catalog(request, catalogVersion, catalogSnapshots, CatalogSnapshots.Listing.PRODUCTS, productService::getAllProducts);
+    }
+
+    @Operation(summary = "Get a page of products", description = "Keyset-paginated product listing ordered by ID. Pass the returned nextAfterId as afterId to fetch the following page.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Page of products", content = @Content(schema = @Schema(implementation = ProductPageDto.class)))
+    })
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageDto> getProductsPage(
+        @Parameter(description = "Return products with an ID greater than this one") @RequestParam(required = false) Long afterId,
+        @Parameter(description = "Restrict the page to a single category") @RequestParam(required = false) Long categoryId,
+        @Parameter(description = "Maximum number of products to return (capped at 500)") @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(productService.getProductsPage(afterId, categoryId, size));
+    }
+
+    @Operation(summary = "Search products", description = "Full-text search over product name and description. Every word must match; results are ranked with name matches weighted above description matches.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Matching products, best first", content = @Content(schema = @Schema(implementation = ProductSearchResultDto.class)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchResultDto>> searchProducts(
+        @Parameter(description = "Search words") @RequestParam String q,
+        @Parameter(description = "Maximum number of results (capped at 100)") @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    @Operation(summary = "Autocomplete product search", description = "Suggests indexed words starting with the prefix, most common first.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Suggested words")
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<String>> autocompleteProducts(
+        @Parameter(description = "Start of the word being typed") @RequestParam String prefix,
+        @Parameter(description = "Maximum number of suggestions (capped at 100)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.autocompleteProducts(prefix, limit));
+    }
+
+    @Operation(summary = "Stream all products", description = "Streams every product as a JSON array, written as rows are read from the database.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stream of products", content = @Content(schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                productService.streamAllProducts(product -> {
+                    try {
+                        generator.writeObject(product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @Operation(summary = "Update product", description = "Update an existing product.",
         security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Product updated successfully", content = @Content(schema = @Schema(implementation = ProductDto.class))),
-        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
         description = "Product update payload",
@@ -76,8 +149,10 @@ public class ProductController {
     @PutMapping("/{id}")
     public ResponseEntity<ProductDto> updateProduct(
         @Parameter(description = "ID of the product to update") @PathVariable Long id,
-        @RequestBody ProductDto productDto) {
-        return ResponseEntity.ok(productService.updateProduct(id, productDto));
+        @RequestBody ProductDto productDto,
+        @Parameter(description = "ETag from a previous read; the update fails with 412 if the product changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductDto product = productService.updateProduct(id, productDto, ETags.expectedVersions(ifMatch));
+        return ETags.ok(product, product != null ? product.getVersion() : null);
     }
 
     @Operation(summary = "Delete product", description = "Delete a product by its ID.",
@@ -0,0 +1,62 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.ImportStatusDto;
+import com.example.ecommerce.service.ProductImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Product Import API", description = "Bulk import of supplier product feeds (admin only)")
+@RestController
+@RequestMapping("/api/imports/products")
+@RequiredArgsConstructor
+public class ProductImportController {
+    private final ProductImportService productImportService;
+
+    @Operation(summary = "Start a product import", description = "Starts a batch import of every CSV (name,price,description,category with a header line) or JSONL file in the import directory matching the pattern. Returns immediately; poll the status endpoint for progress (admin only).",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Import started", content = @Content(schema = @Schema(implementation = ImportStatusDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid pattern or no matching files", content = @Content)
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<ImportStatusDto> startImport(@Parameter(description = "File name pattern inside the import directory, e.g. supplier-*.csv") @RequestParam String pattern) throws JobExecutionException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productImportService.startImport(pattern));
+    }
+
+    @Operation(summary = "Get product import status", description = "Returns progress counters and throughput of an import (admin only).",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Import found", content = @Content(schema = @Schema(implementation = ImportStatusDto.class))),
+        @ApiResponse(responseCode = "404", description = "Import not found", content = @Content)
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{executionId}")
+    public ResponseEntity<ImportStatusDto> getImportStatus(@Parameter(description = "Execution ID returned when the import was started") @PathVariable Long executionId) {
+        return ResponseEntity.ok(productImportService.getImportStatus(executionId));
+    }
+
+    @Operation(summary = "Restart a failed product import", description = "Resumes a failed or stopped import from the last committed chunk of each file (admin only).",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Import restarted", content = @Content(schema = @Schema(implementation = ImportStatusDto.class))),
+        @ApiResponse(responseCode = "404", description = "Import not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Import is still running or already completed", content = @Content)
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{executionId}/restart")
+    public ResponseEntity<ImportStatusDto> restartImport(@Parameter(description = "Execution ID of the failed import") @PathVariable Long executionId) throws JobExecutionException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productImportService.restartImport(executionId));
+    }
+}
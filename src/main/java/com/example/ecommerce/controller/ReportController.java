@@ -0,0 +1,84 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.DailyRevenueDto;
+import com.example.ecommerce.dto.JobStatusDto;
+import com.example.ecommerce.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag(name = "Report API", description = "Revenue reports from pre-aggregated daily totals, which trail order changes by up to a second (admin/support only)")
+@RestController
+@RequestMapping("/api/reports/revenue")
+@RequiredArgsConstructor
+public class ReportController {
+    private final ReportService reportService;
+
+    @Operation(summary = "Daily revenue of a product", description = "Revenue and units sold per day for one product. Defaults to the last 30 days (admin/support only).",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Revenue per day; days without sales are omitted", content = @Content(schema = @Schema(implementation = DailyRevenueDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid date window", content = @Content)
+    })
+    @PreAuthorize("hasAnyRole('ADMIN','SUPPORT')")
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<List<DailyRevenueDto>> getProductDailyRevenue(
+            @Parameter(description = "ID of the product") @PathVariable Long productId,
+            @Parameter(description = "First day, inclusive (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd); defaults to today") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getProductDailyRevenue(productId, from, to));
+    }
+
+    @Operation(summary = "Daily revenue of a category", description = "Revenue and units sold per day across all products of a category. Defaults to the last 30 days (admin/support only).",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Revenue per day; days without sales are omitted", content = @Content(schema = @Schema(implementation = DailyRevenueDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid date window", content = @Content)
+    })
+    @PreAuthorize("hasAnyRole('ADMIN','SUPPORT')")
+    @GetMapping("/categories/{categoryId}")
+    public ResponseEntity<List<DailyRevenueDto>> getCategoryDailyRevenue(
+            @Parameter(description = "ID of the category") @PathVariable Long categoryId,
+            @Parameter(description = "First day, inclusive (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd); defaults to today") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getCategoryDailyRevenue(categoryId, from, to));
+    }
+
+    @Operation(summary = "Rebuild the revenue aggregate", description = "Starts a batch job that recomputes all daily revenue from the order items (admin only).",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Backfill started", content = @Content(schema = @Schema(implementation = JobStatusDto.class))),
+        @ApiResponse(responseCode = "409", description = "A backfill could not be started", content = @Content)
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/backfill")
+    public ResponseEntity<JobStatusDto> startRevenueBackfill() throws JobExecutionException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportService.startRevenueBackfill());
+    }
+
+    @Operation(summary = "Get revenue backfill status", description = "Returns the state of a revenue backfill (admin only).",
+        security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Backfill found", content = @Content(schema = @Schema(implementation = JobStatusDto.class))),
+        @ApiResponse(responseCode = "404", description = "Backfill not found", content = @Content)
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/backfill/{executionId}")
+    public ResponseEntity<JobStatusDto> getRevenueBackfillStatus(@Parameter(description = "Execution ID returned when the backfill was started") @PathVariable Long executionId) {
+        return ResponseEntity.ok(reportService.getRevenueBackfillStatus(executionId));
+    }
+}
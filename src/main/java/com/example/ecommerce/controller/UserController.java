@@ -13,6 +13,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -59,7 +60,8 @@ public class UserController {
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/{id}")
     public ResponseEntity<UserDto> getUser(@Parameter(description = "ID of the user to retrieve") @PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+        UserDto user = userService.getUserById(id);
+        return ETags.ok(user, user != null ? user.getVersion() : null);
     }
 
     @Operation(summary = "Get all users", description = "Retrieve a list of all users.",
@@ -77,7 +79,8 @@ public class UserController {
         security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "User updated successfully", content = @Content(schema = @Schema(implementation = UserDto.class))),
-        @ApiResponse(responseCode = "404", description = "User not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "User not found", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
         description = "User update payload",
@@ -88,8 +91,10 @@ public class UserController {
     @PatchMapping("/{id}")
     public ResponseEntity<UserDto> updateUser(
             @Parameter(description = "ID of the user to update") @PathVariable Long id,
-            @RequestBody UserUpdateDto userDto) {
-        return ResponseEntity.ok(userService.updateUser(id, userDto));
+            @RequestBody UserUpdateDto userDto,
+            @Parameter(description = "ETag from a previous read; the update fails with 412 if the user changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserDto user = userService.updateUser(id, userDto, ETags.expectedVersions(ifMatch));
+        return ETags.ok(user, user.getVersion());
     }
 
     @Operation(summary = "Delete user", description = "Delete a user by their ID.",
@@ -0,0 +1,160 @@
+package com.example.ecommerce.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ScheduledFuture;
+
+// Stands in for replication between the two H2 databases of the replica profile. Each run copies every
+// table of the primary into the replica within one replica transaction, so readers there always see a whole
+// snapshot, and the copied heartbeat row tells ReplicaLagMonitor how old that snapshot is.
+// Only for local use: a real replica is kept up to date by the database itself.
+@Slf4j
+public class LocalReplicaSync implements AutoCloseable {
+    private static final int BATCH_SIZE = 1000;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private volatile ScheduledFuture<?> task;
+
+    public LocalReplicaSync(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    public void start(TaskScheduler scheduler, long intervalMillis) {
+        task = scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (SQLException e) {
+                log.warn("Replica sync failed, reads fall back to the primary until it catches up: {}", e.getMessage());
+            }
+        }, Duration.ofMillis(intervalMillis));
+    }
+
+    public synchronized void sync() throws SQLException {
+        try (Connection source = primary.getConnection(); Connection target = replica.getConnection()) {
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            target.setAutoCommit(false);
+            try {
+                List<String> tables = tables(source);
+                createMissingTables(source, target, tables);
+                for (String table : tables) {
+                    copy(source, target, table);
+                }
+                target.commit();
+            } catch (SQLException e) {
+                target.rollback();
+                throw e;
+            } finally {
+                source.rollback();
+            }
+        }
+    }
+
+    // The heartbeat is copied first so the lag it shows is never smaller than that of the data
+    private static List<String> tables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT table_name FROM information_schema.tables "
+                     + "WHERE table_schema = 'PUBLIC' AND table_type = 'BASE TABLE' ORDER BY table_name")) {
+            while (rs.next()) {
+                String table = rs.getString(1);
+                if (table.equalsIgnoreCase(ReplicaLagMonitor.HEARTBEAT_TABLE)) {
+                    tables.add(0, table);
+                } else {
+                    tables.add(table);
+                }
+            }
+        }
+        return tables;
+    }
+
+    // Tables, keys and indexes are scripted from the primary; foreign keys are left out because the
+    // replica is only ever written by this copy
+    private static void createMissingTables(Connection source, Connection target, List<String> tables) throws SQLException {
+        Set<String> existing = new HashSet<>(tables(target));
+        StringJoiner missing = new StringJoiner(", ");
+        tables.stream().filter(table -> !existing.contains(table)).forEach(table -> missing.add(quote(table)));
+        if (missing.length() == 0) {
+            return;
+        }
+        List<String> ddl = new ArrayList<>();
+        try (Statement statement = source.createStatement();
+             ResultSet rs = statement.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS TABLE " + missing)) {
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (sql.startsWith("CREATE MEMORY TABLE") || sql.startsWith("CREATE CACHED TABLE")
+                        || sql.startsWith("CREATE INDEX") || sql.startsWith("CREATE UNIQUE INDEX")
+                        || (sql.startsWith("ALTER TABLE") && !sql.contains("FOREIGN KEY"))) {
+                    ddl.add(sql);
+                }
+            }
+        }
+        try (Statement statement = target.createStatement()) {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static void copy(Connection source, Connection target, String table) throws SQLException {
+        try (Statement delete = target.createStatement()) {
+            delete.executeUpdate("DELETE FROM " + quote(table));
+        }
+        try (Statement select = source.createStatement();
+             ResultSet rows = select.executeQuery("SELECT * FROM " + quote(table))) {
+            ResultSetMetaData metaData = rows.getMetaData();
+            int columns = metaData.getColumnCount();
+            StringJoiner names = new StringJoiner(", ", "(", ")");
+            StringJoiner values = new StringJoiner(", ", "(", ")");
+            for (int i = 1; i <= columns; i++) {
+                names.add(quote(metaData.getColumnName(i)));
+                values.add("?");
+            }
+            try (PreparedStatement insert = target.prepareStatement(
+                    "INSERT INTO " + quote(table) + " " + names + " VALUES " + values)) {
+                int pending = 0;
+                while (rows.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        insert.setObject(i, rows.getObject(i));
+                    }
+                    insert.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier + "\"";
+    }
+
+    @Override
+    public void close() {
+        ScheduledFuture<?> scheduled = task;
+        if (scheduled != null) {
+            scheduled.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.ecommerce.datasource;
+
+import java.util.function.Supplier;
+
+// Reads whose result is tagged with something that moves on commit, like the catalog version, have to see every
+// committed write, which a replica up to max-lag-ms behind can't promise. Connections taken while work runs in
+// here come from the primary even when the replica is fresh enough. Connections are taken lazily, at the first
+// statement, so this may sit inside a read-only transaction. Without the replica profile it is a plain call.
+public final class PrimaryReads {
+    private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> work) {
+        boolean outermost = FORCED.get() == null;
+        FORCED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (outermost) {
+                FORCED.remove();
+            }
+        }
+    }
+
+    static boolean isForced() {
+        return FORCED.get() != null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ecommerce.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+
+// Splits JDBC traffic between the primary and a read replica once spring.datasource.replica.jdbc-url is set
+// (see application-replica.properties). The DataSource everything uses hands out lazy connections: by the
+// first statement a read-only transaction, including Spring Data's finders outside a service transaction,
+// has marked its connection read-only and it is taken from the replica. Writes, JdbcTemplate work and batch
+// jobs stay on the primary.
+@Configuration
+@ConditionalOnProperty("spring.datasource.replica.jdbc-url")
+public class ReplicaDataSourceConfig {
+
+    // The same pool DataSourceAutoConfiguration would have built, which backs off once dataSource below exists
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               MeterRegistry meterRegistry, TaskScheduler taskScheduler,
+                                               @Value("${datasource.routing.max-lag-ms:1000}") long maxLagMillis,
+                                               @Value("${datasource.routing.heartbeat-ms:200}") long heartbeatMillis) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, meterRegistry, maxLagMillis);
+        if (heartbeatMillis > 0) {
+            monitor.start(taskScheduler, heartbeatMillis);
+        }
+        return monitor;
+    }
+
+    @Bean
+    @ConditionalOnProperty("datasource.routing.local-sync-ms")
+    public LocalReplicaSync localReplicaSync(@Qualifier("primaryDataSource") DataSource primary,
+                                             @Qualifier("replicaDataSource") DataSource replica,
+                                             TaskScheduler taskScheduler,
+                                             @Value("${datasource.routing.local-sync-ms}") long intervalMillis) {
+        LocalReplicaSync sync = new LocalReplicaSync(primary, replica);
+        if (intervalMillis > 0) {
+            sync.start(taskScheduler, intervalMillis);
+        }
+        return sync;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor, meterRegistry));
+        return dataSource;
+    }
+}
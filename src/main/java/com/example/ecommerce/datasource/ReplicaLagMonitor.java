@@ -0,0 +1,87 @@
+package com.example.ecommerce.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+
+// Writes a heartbeat row on the primary and reads it back from the replica; the difference is how far
+// replication is behind. While that exceeds the allowed lag, or the replica can't be queried, read-only
+// connections go to the primary instead.
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+    static final String HEARTBEAT_TABLE = "replica_heartbeat";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private volatile ScheduledFuture<?> task;
+    private volatile long lagMillis = -1;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, MeterRegistry meterRegistry, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        this.primary.execute("CREATE TABLE IF NOT EXISTS " + HEARTBEAT_TABLE + " (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Age of the newest heartbeat visible on the replica, -1 while it can't be read")
+                .baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .description("1 while read-only connections are routed to the replica").register(meterRegistry);
+    }
+
+    public void start(TaskScheduler scheduler, long heartbeatMillis) {
+        task = scheduler.scheduleWithFixedDelay(() -> {
+            beat();
+            check();
+        }, Duration.ofMillis(heartbeatMillis));
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    void beat() {
+        try {
+            primary.update("MERGE INTO " + HEARTBEAT_TABLE + " KEY (id) VALUES (1, ?)", System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            log.warn("Could not write replica heartbeat: {}", e.getMessage());
+        }
+    }
+
+    void check() {
+        boolean wasUsable = replicaUsable;
+        try {
+            Long beatAt = replica.query("SELECT beat_at FROM " + HEARTBEAT_TABLE + " WHERE id = 1",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            lagMillis = beatAt != null ? Math.max(0, System.currentTimeMillis() - beatAt) : -1;
+        } catch (DataAccessException e) {
+            // Covers a replica that is down as well as one that hasn't received the heartbeat table yet
+            lagMillis = -1;
+        }
+        replicaUsable = lagMillis >= 0 && lagMillis <= maxLagMillis;
+        if (wasUsable != replicaUsable) {
+            log.info("Routing read-only connections to the {} (replica lag {} ms, allowed {} ms)",
+                    replicaUsable ? "replica" : "primary", lagMillis, maxLagMillis);
+        }
+    }
+
+    @Override
+    public void close() {
+        ScheduledFuture<?> scheduled = task;
+        if (scheduled != null) {
+            scheduled.cancel(true);
+        }
+    }
+}
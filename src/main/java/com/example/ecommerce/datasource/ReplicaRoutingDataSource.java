@@ -0,0 +1,41 @@
+package com.example.ecommerce.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Target for read-only connections: the replica while ReplicaLagMonitor considers it fresh enough and the
+// caller isn't inside PrimaryReads, otherwise the primary
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaConnections;
+    private final Counter fallbackConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.replicaConnections = Counter.builder("datasource.routing.read-connections").tag("target", "replica")
+                .description("Read-only connections handed out, by the database they went to").register(meterRegistry);
+        this.fallbackConnections = Counter.builder("datasource.routing.read-connections").tag("target", "primary")
+                .description("Read-only connections handed out, by the database they went to").register(meterRegistry);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (lagMonitor.isReplicaUsable() && !PrimaryReads.isForced()) {
+            replicaConnections.increment();
+            return Route.REPLICA;
+        }
+        fallbackConnections.increment();
+        return Route.PRIMARY;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ecommerce.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutRequestDto {
+    private Long userId;
+    private LocalDateTime orderDate;
+    private String status;
+    // A list, not a set: two identical lines are two lines, and checkout adds their quantities up
+    private List<OrderItemDto> orderItems;
+}
@@ -0,0 +1,15 @@
+package com.example.ecommerce.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRevenueDto {
+    private LocalDate day;
+    private BigDecimal revenue;
+    private Long units;
+}
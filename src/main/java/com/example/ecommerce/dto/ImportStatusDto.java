@@ -0,0 +1,24 @@
+package com.example.ecommerce.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportStatusDto {
+    private Long executionId;
+    private String input;
+    private String status;
+    private String exitCode;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private long readCount;
+    private long writeCount;
+    // Rows dropped because their category does not exist
+    private long filterCount;
+    // Unparseable or invalid rows
+    private long skipCount;
+    private double rowsPerSecond;
+}
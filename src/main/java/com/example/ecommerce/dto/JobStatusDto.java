@@ -0,0 +1,17 @@
+package com.example.ecommerce.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobStatusDto {
+    private Long executionId;
+    private String jobName;
+    private String status;
+    private String exitCode;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
@@ -14,5 +14,6 @@ public class OrderDto {
     private LocalDateTime orderDate;
     private String status;
     private Set<OrderItemDto> orderItems;
+    private Long version;
 }
 
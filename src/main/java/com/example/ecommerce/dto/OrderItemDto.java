@@ -9,8 +9,10 @@ import java.math.BigDecimal;
 @Builder
 public class OrderItemDto {
     private Long id;
+    private Long orderId;
     private Long productId;
     private Integer quantity;
     private BigDecimal price;
+    private Long version;
 }
 
@@ -13,5 +13,6 @@ public class ProductDto {
     private BigDecimal price;
     private String description;
     private Long categoryId;
+    private Long version;
 }
 
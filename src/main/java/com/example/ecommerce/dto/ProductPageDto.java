@@ -0,0 +1,14 @@
+package com.example.ecommerce.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPageDto {
+    private List<ProductDto> items;
+    // Pass as afterId to fetch the next page; null when there are no more products
+    private Long nextAfterId;
+}
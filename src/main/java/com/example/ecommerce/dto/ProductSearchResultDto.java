@@ -0,0 +1,17 @@
+package com.example.ecommerce.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSearchResultDto {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Long categoryId;
+    // Relevance; higher is better
+    private double score;
+}
@@ -0,0 +1,12 @@
+package com.example.ecommerce.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustmentDto {
+    // Units received (positive) or written off (negative)
+    private long delta;
+}
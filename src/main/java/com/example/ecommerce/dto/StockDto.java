@@ -0,0 +1,13 @@
+package com.example.ecommerce.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockDto {
+    private Long productId;
+    // Units that can still be ordered; null when the product isn't stock-tracked
+    private Long available;
+}
@@ -13,4 +13,5 @@ public class UserDto {
     private String username;
     private String email;
     private Set<UserRole> roles;
+    private Long version;
 }
@@ -0,0 +1,36 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Pre-aggregated revenue per product and day, folded in from daily_revenue_delta by DailyRevenueFolder
+@Entity
+@Table(name = "daily_product_revenue",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_product_revenue", columnNames = {"revenue_day", "product_id"}),
+        indexes = @Index(name = "idx_daily_product_revenue_category", columnList = "category_id, revenue_day"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyProductRevenue {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "revenue_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private Long units;
+}
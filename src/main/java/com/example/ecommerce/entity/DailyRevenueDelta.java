@@ -0,0 +1,35 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Revenue changes appended by DailyRevenueWriter in the order's transaction and folded into daily_product_revenue
+// in the background. Inserts only, so concurrent checkouts never wait on each other's aggregate rows.
+@Entity
+@Table(name = "daily_revenue_delta")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRevenueDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "revenue_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private Long units;
+}
@@ -26,7 +26,14 @@ public class Order {
     @Column(nullable = false)
     private String status;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Inverse sides are left out of equals/hashCode/toString so they neither recurse nor trigger lazy loads
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<OrderItem> orderItems;
 }
 
@@ -0,0 +1,25 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Sinks that already took an outbox event whose other sinks have not, so a retry only goes to the sinks still
+// missing it. Rows exist only while their event is stuck and are deleted along with it.
+@Entity
+@Table(name = "order_outbox_delivery",
+        uniqueConstraints = @UniqueConstraint(name = "uk_order_outbox_delivery", columnNames = {"event_id", "sink"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderOutboxDelivery {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false, length = 64)
+    private String sink;
+}
@@ -0,0 +1,46 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Order lifecycle events waiting to be relayed, written by OrderOutboxRepository in the same transaction as the
+// order change. No foreign key: a deletion event outlives its order. An event that keeps failing is parked:
+// it stays in the table with its last error but is no longer relayed.
+@Entity
+@Table(name = "order_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private String status;
+
+    @Column(name = "previous_status")
+    private String previousStatus;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -29,7 +29,14 @@ public class Product {
     @JoinColumn(name = "category_id")
     private Category category;
 
+    // Bumped by Hibernate on every update and checked in its WHERE clause; clients see it as the ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<OrderItem> orderItems;
 }
 
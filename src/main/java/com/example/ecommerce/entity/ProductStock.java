@@ -0,0 +1,21 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Units per product that no node has claimed yet; StockLedger claims them in blocks and sells them from memory.
+// Products without a row are not stock-tracked and never run out.
+@Entity
+@Table(name = "product_stock")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStock {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long quantity;
+}
@@ -33,7 +33,13 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Set<UserRole> roles;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Relationships
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<Order> orders;
 }
@@ -0,0 +1,7 @@
+package com.example.ecommerce.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
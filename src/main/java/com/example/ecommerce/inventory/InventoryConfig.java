@@ -0,0 +1,25 @@
+package com.example.ecommerce.inventory;
+
+import com.example.ecommerce.repository.ProductStockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+
+@Configuration
+public class InventoryConfig {
+
+    // The sweep releases holds that outlived their TTL and hands units this node left idle back to product_stock
+    @Bean
+    public StockLedger stockLedger(ProductStockRepository stockRepository, TaskScheduler taskScheduler,
+                                   @Value("${inventory.reservation-ttl-ms:30000}") long reservationTtlMillis,
+                                   @Value("${inventory.allocation-size:100}") long allocationSize,
+                                   @Value("${inventory.allocation-idle-ms:10000}") long allocationIdleMillis,
+                                   @Value("${inventory.sweep-ms:200}") long sweepMillis) {
+        StockLedger ledger = new StockLedger(stockRepository, reservationTtlMillis, allocationSize, allocationIdleMillis);
+        if (sweepMillis > 0) {
+            ledger.start(taskScheduler, sweepMillis);
+        }
+        return ledger;
+    }
+}
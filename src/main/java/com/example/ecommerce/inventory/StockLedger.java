@@ -0,0 +1,407 @@
+package com.example.ecommerce.inventory;
+
+import com.example.ecommerce.exception.InsufficientStockException;
+import com.example.ecommerce.repository.ProductStockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// In-memory stock for this node, sold out of per-node allocations. product_stock holds the units no node has claimed
+// yet; a node claims up to allocation-size of them at a time and sells them from a CAS counter, so checkouts on a hot
+// product neither touch its row nor wait on each other, and no two nodes can sell the same unit. Only the checkout
+// that finds the counter short claims more: in its own transaction, so a rollback leaves the units unclaimed, and
+// they reach the counter once it commits. Meanwhile other checkouts on this node wait for that refill rather than
+// lock the row themselves, and products are refilled in productId order, so two orders never lock rows crosswise.
+// A reservation holds units until it is sold, released, or outlives its TTL. Units left idle on a node for
+// allocation-idle-ms go back to product_stock, and all of them do on close.
+// The trade-offs: a node can refuse a checkout while units sit idle on another, and a crash loses the units the node
+// had claimed. product_stock then counts too few until it is adjusted, but nothing is ever oversold.
+@Slf4j
+public class StockLedger implements AutoCloseable {
+    // How long a checkout waits for another one's refill, and how long a product found sold out or untracked is
+    // taken at its word before product_stock is asked again
+    private static final long REFILL_WAIT_MILLIS = 5_000;
+    private static final long RECHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ProductStockRepository stockRepository;
+    private final long ttlNanos;
+    private final long allocationSize;
+    private final long idleNanos;
+    private final Map<Long, Sku> skus = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> held = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+    private volatile ScheduledFuture<?> task;
+
+    public StockLedger(ProductStockRepository stockRepository, long ttlMillis, long allocationSize, long idleMillis) {
+        this.stockRepository = stockRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.allocationSize = allocationSize;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    }
+
+    public void start(TaskScheduler scheduler, long intervalMillis) {
+        Duration interval = Duration.ofMillis(intervalMillis);
+        task = scheduler.scheduleWithFixedDelay(() -> {
+            sweepExpired();
+            returnIdle();
+        }, Instant.now().plus(interval), interval);
+    }
+
+    // Units this node holds plus the unclaimed ones; what other nodes hold isn't counted. Null for products that
+    // aren't stock-tracked. A caller whose transaction claimed units already sees them gone from product_stock, so
+    // they are counted as held.
+    public Long available(long productId) {
+        Long unclaimed = stockRepository.findQuantity(productId);
+        if (unclaimed == null) {
+            return null;
+        }
+        Sku sku = skus.get(productId);
+        if (sku == null) {
+            return unclaimed;
+        }
+        Refill refill = sku.refilling.get();
+        long claimed = refill != null && refill.owner == Thread.currentThread() ? refill.claim.get() : 0;
+        return unclaimed + sku.available.get() + claimed;
+    }
+
+    public Reservation reserve(long productId, int quantity) {
+        Sku sku = sku(productId);
+        long now = System.nanoTime();
+        sku.lastUsedAt = now;
+        if (!sku.tracked && now - sku.checkedAt >= RECHECK_NANOS) {
+            // Another node may have started tracking it
+            sku.checkedAt = now;
+            sku.tracked = stockRepository.findQuantity(productId) != null;
+        }
+        if (!sku.tracked) {
+            return new Reservation(0, productId, quantity, null, 0, null);
+        }
+        while (!sku.take(quantity)) {
+            Reservation claimed = refill(productId, sku, quantity);
+            if (claimed != null) {
+                return claimed;
+            }
+        }
+        Reservation reservation = new Reservation(reservationIds.incrementAndGet(), productId, quantity, sku,
+                System.nanoTime() + ttlNanos, null);
+        held.put(reservation.id, reservation);
+        return reservation;
+    }
+
+    // All or nothing: units already taken are put back when a later product is short. Products go in productId
+    // order, so checkouts that claim stock for several of them lock the rows in the same order.
+    public List<Reservation> reserveAll(Map<Long, Integer> quantitiesByProduct) {
+        List<Reservation> reservations = new ArrayList<>(quantitiesByProduct.size());
+        try {
+            new TreeMap<>(quantitiesByProduct).forEach((productId, quantity) -> reservations.add(reserve(productId, quantity)));
+        } catch (RuntimeException e) {
+            reservations.forEach(reservation -> complete(reservation, false));
+            throw e;
+        }
+        return reservations;
+    }
+
+    // Makes a hold final, so it no longer expires; a hold that has already expired has to win its units back
+    public void confirm(Reservation reservation) {
+        if (reservation.sku == null) {
+            return;
+        }
+        if (reservation.state.compareAndSet(State.HELD, State.CONFIRMED)) {
+            held.remove(reservation.id);
+        } else if (reservation.state.get() == State.EXPIRED) {
+            if (!reservation.sku.take(reservation.quantity)) {
+                throw new InsufficientStockException("Reservation for product " + reservation.productId
+                        + " expired and the stock has since been sold");
+            }
+            reservation.state.set(State.CONFIRMED);
+        } else {
+            throw new IllegalStateException("Reservation " + reservation.id + " is already " + reservation.state.get());
+        }
+    }
+
+    // Sold units were claimed off product_stock before they were handed out, so a sale writes nothing; anything else
+    // goes back on this node's shelf
+    public void complete(Reservation reservation, boolean sold) {
+        if (reservation.sku == null) {
+            return;
+        }
+        if (sold) {
+            reservation.state.compareAndSet(State.CONFIRMED, State.SOLD);
+            return;
+        }
+        State state = reservation.state.get();
+        if ((state == State.HELD || state == State.CONFIRMED) && reservation.state.compareAndSet(state, State.RELEASED)) {
+            held.remove(reservation.id);
+            (reservation.claim != null ? reservation.claim : reservation.sku.available).addAndGet(reservation.quantity);
+        }
+    }
+
+    // Puts the units of a cancelled or deleted order back in the caller's transaction; untracked products are
+    // left alone. Call refresh for the products once it has committed.
+    public void restore(Map<Long, Integer> quantitiesByProduct) {
+        Map<Long, Long> quantities = new TreeMap<>();
+        quantitiesByProduct.forEach((productId, quantity) -> quantities.put(productId, (long) quantity));
+        stockRepository.restore(quantities);
+    }
+
+    // Receiving (positive) or writing off (negative) stock, straight to product_stock; the first adjustment
+    // starts tracking a product. Units this node holds are handed back first, so they can be written off too.
+    public long adjust(long productId, long delta) {
+        Sku sku = sku(productId);
+        if (delta < 0) {
+            long local = sku.available.getAndSet(0);
+            if (local > 0) {
+                stockRepository.restore(Map.of(productId, local));
+            }
+            if (!stockRepository.take(productId, -delta)) {
+                Long quantity = stockRepository.findQuantity(productId);
+                throw new InsufficientStockException("Cannot remove " + -delta + " units of product " + productId
+                        + ", available " + (quantity != null ? quantity : 0));
+            }
+        }
+        if (delta > 0) {
+            stockRepository.applyDeltas(Map.of(productId, delta));
+            // This node doesn't wait for a recheck to find the row it just wrote
+            sku.tracked = true;
+        }
+        refresh(productId);
+        return available(productId);
+    }
+
+    // Forgets that the product was found sold out or untracked, so the next shortfall asks product_stock again
+    public void refresh(long productId) {
+        Sku sku = skus.get(productId);
+        if (sku != null) {
+            long now = System.nanoTime();
+            sku.soldOutUntil = now;
+            sku.checkedAt = now - RECHECK_NANOS;
+        }
+    }
+
+    int sweepExpired() {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (Reservation reservation : held.values()) {
+            if (now - reservation.expiresAtNanos >= 0 && reservation.state.compareAndSet(State.HELD, State.EXPIRED)) {
+                held.remove(reservation.id);
+                reservation.sku.available.addAndGet(reservation.quantity);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Released {} expired stock reservations", expired);
+        }
+        return expired;
+    }
+
+    int returnIdle() {
+        return returnUnits(idleNanos);
+    }
+
+    @Override
+    public void close() {
+        ScheduledFuture<?> scheduled = task;
+        if (scheduled != null) {
+            scheduled.cancel(true);
+        }
+        returnUnits(0);
+    }
+
+    // Called with the counter short. One transaction per product claims more at a time; checkouts in other ones wait
+    // for it and then try the counter again, while the claiming one draws on its claim and tops it up as it goes.
+    // Returns a reservation on the claim, or null when the counter should be tried again.
+    private Reservation refill(long productId, Sku sku, int quantity) {
+        Refill running = sku.refilling.get();
+        if (running != null && running.owner != Thread.currentThread()) {
+            await(running, productId);
+            return null;
+        }
+        if (running == null && System.nanoTime() - sku.soldOutUntil < 0) {
+            throw new InsufficientStockException("Not enough stock for product " + productId + ": requested "
+                    + quantity + ", available " + sku.available.get());
+        }
+        Refill refill = running != null ? running : new Refill();
+        if (running == null && !sku.refilling.compareAndSet(null, refill)) {
+            return null;
+        }
+        if (refill.claim.get() < quantity) {
+            long wanted = Math.max(allocationSize, quantity);
+            long granted;
+            try {
+                Long claimed = stockRepository.allocate(productId, wanted);
+                granted = claimed != null ? claimed : 0;
+            } catch (RuntimeException e) {
+                if (running == null) {
+                    finishRefill(sku, refill, false);
+                }
+                throw e;
+            }
+            refill.claim.addAndGet(granted);
+            refill.exhausted |= granted < wanted;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Already committed
+            finishRefill(sku, refill, true);
+            return null;
+        }
+        if (running == null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    finishRefill(sku, refill, status == STATUS_COMMITTED);
+                }
+            });
+        }
+        if (!take(refill.claim, quantity)) {
+            throw new InsufficientStockException("Not enough stock for product " + productId + ": requested "
+                    + quantity + ", available " + (refill.claim.get() + sku.available.get()));
+        }
+        // Decided with the transaction that claimed it, so it can't expire before then
+        return new Reservation(reservationIds.incrementAndGet(), productId, quantity, sku, 0, refill.claim);
+    }
+
+    // A rolled-back claim is back on product_stock already
+    private static void finishRefill(Sku sku, Refill refill, boolean committed) {
+        if (committed) {
+            sku.available.addAndGet(refill.claim.getAndSet(0));
+            if (refill.exhausted) {
+                sku.soldOutUntil = System.nanoTime() + RECHECK_NANOS;
+            }
+        }
+        sku.refilling.set(null);
+        refill.done.complete(null);
+    }
+
+    private static void await(Refill refill, long productId) {
+        try {
+            refill.done.get(REFILL_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new InsufficientStockException("Stock for product " + productId + " is being refilled, try again");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InsufficientStockException("Interrupted while stock for product " + productId + " was refilled");
+        } catch (ExecutionException e) {
+            // Never completed exceptionally
+        }
+    }
+
+    private static boolean take(AtomicLong counter, long quantity) {
+        long current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    // Idle for at least idleNanos; 0 hands back everything. A reservation racing the hand-back just finds the
+    // counter short and claims again.
+    private int returnUnits(long idleNanos) {
+        long now = System.nanoTime();
+        Map<Long, Long> unused = new TreeMap<>();
+        skus.forEach((productId, sku) -> {
+            if (sku.refilling.get() == null && now - sku.lastUsedAt >= idleNanos) {
+                long units = sku.available.getAndSet(0);
+                if (units > 0) {
+                    unused.put(productId, units);
+                }
+            }
+        });
+        if (unused.isEmpty()) {
+            return 0;
+        }
+        try {
+            stockRepository.restore(unused);
+        } catch (RuntimeException e) {
+            unused.forEach((productId, units) -> skus.get(productId).available.addAndGet(units));
+            log.warn("Could not hand {} products' unused stock back, keeping it for now: {}", unused.size(), e.getMessage());
+            return 0;
+        }
+        return unused.size();
+    }
+
+    // Loaded outside the map, so the query never runs while a ConcurrentHashMap bin is locked; a racing load of
+    // the same product is simply dropped
+    private Sku sku(long productId) {
+        Sku sku = skus.get(productId);
+        if (sku != null) {
+            return sku;
+        }
+        Sku loaded = new Sku(stockRepository.findQuantity(productId) != null);
+        Sku raced = skus.putIfAbsent(productId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private enum State { HELD, CONFIRMED, EXPIRED, SOLD, RELEASED }
+
+    public static final class Reservation {
+        private final long id;
+        private final long productId;
+        private final int quantity;
+        private final Sku sku;
+        private final long expiresAtNanos;
+        // Units claimed by the reserving transaction itself, which released units go back to
+        private final AtomicLong claim;
+        private final AtomicReference<State> state = new AtomicReference<>(State.HELD);
+
+        private Reservation(long id, long productId, int quantity, Sku sku, long expiresAtNanos, AtomicLong claim) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.sku = sku;
+            this.expiresAtNanos = expiresAtNanos;
+            this.claim = claim;
+        }
+
+        public long getProductId() {
+            return productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+
+    private static final class Sku {
+        private final AtomicLong available = new AtomicLong();
+        private final AtomicReference<Refill> refilling = new AtomicReference<>();
+        private volatile boolean tracked;
+        private volatile long checkedAt = System.nanoTime();
+        private volatile long soldOutUntil = checkedAt;
+        private volatile long lastUsedAt = checkedAt;
+
+        private Sku(boolean tracked) {
+            this.tracked = tracked;
+        }
+
+        private boolean take(long quantity) {
+            return StockLedger.take(available, quantity);
+        }
+    }
+
+    // Units one transaction claimed off product_stock; the thread it is bound to owns them until it ends
+    private static final class Refill {
+        private final Thread owner = Thread.currentThread();
+        private final AtomicLong claim = new AtomicLong();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile boolean exhausted;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.ecommerce.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+    // Routes every DataSource through datasource-proxy so QueryStatsListener sees each statement. Delegating
+    // DataSources such as the replica routing proxy are skipped; the pools behind them are already wrapped.
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                        && !(bean instanceof DelegatingDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryStatsListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Adds a bucketed db.statements tag to http.server.requests; exact counts would explode the tag cardinality
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object statements = context.getCarrier().getAttribute(RequestMetricsFilter.STATEMENTS_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context)
+                        .and(KeyValue.of("db.statements", bucket(statements instanceof Integer count ? count : 0)));
+            }
+        };
+    }
+
+    static String bucket(int statements) {
+        if (statements <= 1) {
+            return String.valueOf(statements);
+        }
+        if (statements <= 5) {
+            return "2-5";
+        }
+        if (statements <= 10) {
+            return "6-10";
+        }
+        return statements <= 50 ? "11-50" : "50+";
+    }
+}
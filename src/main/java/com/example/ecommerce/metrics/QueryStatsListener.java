@@ -0,0 +1,29 @@
+package com.example.ecommerce.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+// Feeds every statement run through the proxied DataSource into the current request's QueryStats
+public class QueryStatsListener implements QueryExecutionListener {
+    private static final String START = QueryStatsListener.class.getName() + ".start";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (QueryStats.current() != null) {
+            // ExecutionInfo only carries milliseconds, which rounds most H2 statements down to zero
+            execInfo.addCustomValue(START, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStats stats = QueryStats.current();
+        Long start = execInfo.getCustomValue(START, Long.class);
+        if (stats != null && start != null) {
+            stats.record(System.nanoTime() - start);
+        }
+    }
+}
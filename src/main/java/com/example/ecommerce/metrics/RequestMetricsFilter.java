@@ -0,0 +1,71 @@
+package com.example.ecommerce.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Collects the JDBC statements of each request, publishes them per endpoint and logs slow requests.
+// Runs just inside the HTTP observation filter so the statement count is known when that metric is tagged.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".statements";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${metrics.slow-request-ms:500}")
+    private long slowRequestMillis;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats.clear();
+            long elapsed = System.nanoTime() - start;
+            request.setAttribute(STATEMENTS_ATTRIBUTE, stats.getStatements());
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.requests.db.statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.getStatements());
+            Timer.builder("http.server.requests.db.time")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+            if (elapsed >= TimeUnit.MILLISECONDS.toNanos(slowRequestMillis)) {
+                log.warn("Slow request {} {} -> {} took {} ms with {} SQL statements in {} ms",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), stats.getStatements(),
+                        TimeUnit.NANOSECONDS.toMillis(stats.getNanos()));
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ecommerce.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+// Hands each event to @EventListener methods on the relay thread; a listener that throws fails the chunk
+@RequiredArgsConstructor
+public class ApplicationEventSink implements OrderEventSink {
+    private final ApplicationEventPublisher publisher;
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+
+    @Override
+    public void deliver(List<OrderEvent> events) {
+        events.forEach(publisher::publishEvent);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ecommerce.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Stand-in for a message queue: appends each chunk as JSON lines and forces it to disk before the chunk counts
+// as delivered. External consumers tail the file.
+public class FileEventSink implements OrderEventSink, AutoCloseable {
+    private final ObjectWriter writer;
+    private final FileChannel channel;
+
+    public FileEventSink(ObjectMapper objectMapper, Path path) throws IOException {
+        this.writer = objectMapper.writerFor(OrderEvent.class);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<OrderEvent> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 160);
+        for (OrderEvent event : events) {
+            writer.writeValue(lines, event);
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.ecommerce.outbox;
+
+import java.time.LocalDateTime;
+
+// The id is the outbox row id: it increases with every event, and consumers use it to drop redeliveries
+public record OrderEvent(long id, Type type, Long orderId, Long userId, String status, String previousStatus,
+                         LocalDateTime occurredAt) {
+    public enum Type { CREATED, STATUS_CHANGED, DELETED }
+}
@@ -0,0 +1,12 @@
+package com.example.ecommerce.outbox;
+
+import java.util.List;
+
+// A destination for relayed order events. Chunks arrive in outbox order; when deliver throws, its events are
+// offered again one at a time, and a sink may have kept part of the chunk, so sinks must tolerate seeing an event
+// more than once.
+public interface OrderEventSink {
+    String name();
+
+    void deliver(List<OrderEvent> events) throws Exception;
+}
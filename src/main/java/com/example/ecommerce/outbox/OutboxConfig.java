@@ -0,0 +1,46 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Any OrderEventSink bean receives the relayed events; the in-process sink is always on, the file sink only
+// when outbox.sink.file.path is set
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    public ApplicationEventSink applicationEventSink(ApplicationEventPublisher publisher) {
+        return new ApplicationEventSink(publisher);
+    }
+
+    @Bean
+    @ConditionalOnProperty("outbox.sink.file.path")
+    public FileEventSink fileEventSink(ObjectMapper objectMapper,
+                                       @Value("${outbox.sink.file.path}") String path) throws IOException {
+        return new FileEventSink(objectMapper, Path.of(path));
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OrderOutboxRepository outboxRepository, List<OrderEventSink> sinks,
+                                   MeterRegistry meterRegistry, TaskScheduler taskScheduler,
+                                   @Value("${outbox.relay.chunk-size:500}") int chunkSize,
+                                   @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+                                   @Value("${outbox.relay.interval-ms:250}") long intervalMillis) {
+        OutboxRelay relay = new OutboxRelay(outboxRepository, sinks, meterRegistry, chunkSize, maxAttempts);
+        if (intervalMillis > 0) {
+            relay.start(taskScheduler, intervalMillis);
+        }
+        return relay;
+    }
+}
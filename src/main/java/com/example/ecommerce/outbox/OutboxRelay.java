@@ -0,0 +1,195 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
+
+// Drains order_outbox oldest first in chunks: every sink gets the chunk, then its rows are deleted. A sink
+// failure leaves the rows in place for the next run, so delivery is at least once; the sinks that did take them
+// are recorded and not sent them again. A failed chunk is retried one event at a time to find the event it fails
+// on, which is charged an attempt and parked after max-attempts, so one bad event cannot hold up the rest. Scheduled
+// runs never overlap, which keeps each order's events in the order they were written.
+@Slf4j
+public class OutboxRelay implements AutoCloseable {
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final OrderOutboxRepository outboxRepository;
+    private final List<OrderEventSink> sinks;
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final MeterRegistry meterRegistry;
+    private final Counter relayed;
+    private final Counter parked;
+    private final Timer chunkTimer;
+    private volatile ScheduledFuture<?> task;
+    private volatile long lagMillis;
+    // Scheduled runs only
+    private boolean stalled;
+    private long backoffMillis;
+    private long resumeAt;
+
+    public OutboxRelay(OrderOutboxRepository outboxRepository, List<OrderEventSink> sinks, MeterRegistry meterRegistry,
+                       int chunkSize, int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.sinks = sinks;
+        this.chunkSize = chunkSize;
+        this.maxAttempts = maxAttempts;
+        this.meterRegistry = meterRegistry;
+        this.relayed = Counter.builder("outbox.events.relayed")
+                .description("Order events delivered to every sink and removed from the outbox")
+                .register(meterRegistry);
+        this.parked = Counter.builder("outbox.events.parked")
+                .description("Order events a sink kept failing on, left in the outbox but no longer relayed")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("outbox.relay.chunk")
+                .description("Time to read, deliver and delete one chunk of outbox events")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", this, relay -> relay.lagMillis)
+                .description("Age of the oldest undelivered order event at the last relay run")
+                .baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    public void start(TaskScheduler scheduler, long intervalMillis) {
+        Duration interval = Duration.ofMillis(intervalMillis);
+        task = scheduler.scheduleWithFixedDelay(() -> relayOnSchedule(intervalMillis), Instant.now().plus(interval),
+                interval);
+    }
+
+    // While a sink keeps failing, runs are skipped for twice as long each time, up to a minute, so an outage
+    // uses up an event's attempts over minutes rather than seconds
+    private void relayOnSchedule(long intervalMillis) {
+        if (backoffMillis > 0 && System.currentTimeMillis() < resumeAt) {
+            return;
+        }
+        drain();
+        backoffMillis = stalled ? Math.min(Math.max(backoffMillis * 2, intervalMillis), MAX_BACKOFF_MILLIS) : 0;
+        resumeAt = System.currentTimeMillis() + backoffMillis;
+    }
+
+    // Relays full chunks back to back until the outbox is empty or a sink fails; returns the number delivered
+    public int drain() {
+        stalled = false;
+        int total = 0;
+        try {
+            int delivered;
+            do {
+                delivered = relayChunk();
+                total += delivered;
+            } while (delivered == chunkSize);
+        } catch (RuntimeException e) {
+            stalled = true;
+            log.warn("Outbox relay run failed: {}", e.getMessage());
+        }
+        return total;
+    }
+
+    int relayChunk() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<OrderEvent> chunk = outboxRepository.findOldest(chunkSize);
+        if (chunk.isEmpty()) {
+            lagMillis = 0;
+            return 0;
+        }
+        lagMillis = Math.max(0, Duration.between(chunk.get(0).occurredAt(), LocalDateTime.now()).toMillis());
+        Map<String, Set<Long>> delivered = outboxRepository.findDeliveries(chunk);
+        Map<String, List<OrderEvent>> taken = new HashMap<>();
+        Set<Long> parkedIds = new HashSet<>();
+        Set<Long> missing = new HashSet<>();
+        for (OrderEventSink sink : sinks) {
+            Set<Long> already = delivered.getOrDefault(sink.name(), Set.of());
+            List<OrderEvent> pending = chunk.stream()
+                    .filter(event -> !already.contains(event.id()) && !parkedIds.contains(event.id()))
+                    .toList();
+            List<OrderEvent> took = deliver(sink, pending, parkedIds);
+            taken.put(sink.name(), took);
+            if (took.size() < pending.size()) {
+                Set<Long> tookIds = took.stream().map(OrderEvent::id).collect(Collectors.toSet());
+                pending.stream().map(OrderEvent::id)
+                        .filter(id -> !tookIds.contains(id) && !parkedIds.contains(id))
+                        .forEach(missing::add);
+            }
+        }
+
+        // Only events some sink still misses need their deliveries written down
+        Set<Long> unfinished = new HashSet<>(missing);
+        unfinished.addAll(parkedIds);
+        if (!missing.isEmpty()) {
+            stalled = true;
+        }
+        if (!unfinished.isEmpty()) {
+            taken.forEach((sink, events) -> {
+                List<Long> ids = events.stream().map(OrderEvent::id).filter(unfinished::contains).toList();
+                if (!ids.isEmpty()) {
+                    outboxRepository.recordDeliveries(sink, ids);
+                }
+            });
+        }
+        List<OrderEvent> done = chunk.stream().filter(event -> !unfinished.contains(event.id())).toList();
+        if (!done.isEmpty()) {
+            outboxRepository.delete(done);
+            if (!delivered.isEmpty()) {
+                outboxRepository.deleteDeliveries(done);
+            }
+            relayed.increment(done.size());
+        }
+        sample.stop(chunkTimer);
+        return done.size();
+    }
+
+    // Returns the events the sink took: pending up to the first failure, leaving out any parked along the way. After a failed
+    // chunk the events are offered one at a time; the first one that fails is charged an attempt and, unless
+    // that parks it, ends the run for this sink so the events behind it keep their order.
+    private List<OrderEvent> deliver(OrderEventSink sink, List<OrderEvent> pending, Set<Long> parkedIds) {
+        if (pending.isEmpty()) {
+            return pending;
+        }
+        try {
+            sink.deliver(pending);
+            return pending;
+        } catch (Exception e) {
+            meterRegistry.counter("outbox.relay.failures", "sink", sink.name()).increment();
+            log.warn("Sink {} failed on order events {}..{}, retrying them one by one: {}",
+                    sink.name(), pending.get(0).id(), pending.get(pending.size() - 1).id(), e.getMessage());
+        }
+        List<OrderEvent> took = new ArrayList<>();
+        for (OrderEvent event : pending) {
+            try {
+                sink.deliver(List.of(event));
+                took.add(event);
+            } catch (Exception e) {
+                if (!outboxRepository.recordFailure(event, sink.name() + ": " + e.getMessage(), maxAttempts)) {
+                    break;
+                }
+                parkedIds.add(event.id());
+                parked.increment();
+                log.error("Parked order event {} after {} failed attempts on sink {}: {}",
+                        event.id(), maxAttempts, sink.name(), e.getMessage());
+            }
+        }
+        return took;
+    }
+
+    @Override
+    public void close() {
+        ScheduledFuture<?> scheduled = task;
+        if (scheduled != null) {
+            scheduled.cancel(true);
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.CategoryDto;
 import com.example.ecommerce.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    @Query("select new com.example.ecommerce.dto.CategoryDto(c.id, c.name) from Category c where c.id = :id")
+    Optional<CategoryDto> findDtoById(@Param("id") Long id);
+
+    @Query("select new com.example.ecommerce.dto.CategoryDto(c.id, c.name) from Category c order by c.id")
+    List<CategoryDto> findAllAsDto();
 }
 
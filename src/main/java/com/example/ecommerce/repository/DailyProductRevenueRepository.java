@@ -0,0 +1,24 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.DailyProductRevenue;
+import com.example.ecommerce.repository.projection.DailyRevenueView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyProductRevenueRepository extends JpaRepository<DailyProductRevenue, Long> {
+    @Query("select d.day as day, d.revenue as revenue, d.units as units from DailyProductRevenue d " +
+            "where d.productId = :productId and d.day between :from and :to order by d.day")
+    List<DailyRevenueView> findProductDays(@Param("productId") Long productId,
+                                           @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select d.day as day, sum(d.revenue) as revenue, sum(d.units) as units from DailyProductRevenue d " +
+            "where d.categoryId = :categoryId and d.day between :from and :to group by d.day order by d.day")
+    List<DailyRevenueView> sumCategoryDays(@Param("categoryId") Long categoryId,
+                                           @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
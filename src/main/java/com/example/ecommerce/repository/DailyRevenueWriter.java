@@ -0,0 +1,137 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.OrderItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Records order item writes as rows in the daily_revenue_delta journal, in the caller's transaction. Items are
+// pre-aggregated per (day, product), so a large batch costs one insert per distinct pair. The journal is merged
+// into daily_product_revenue by fold(), which DailyRevenueFolder runs off the request path: checkouts only ever
+// insert, so they neither wait on each other's (day, product) rows nor race to create the first row of a day.
+@Repository
+@RequiredArgsConstructor
+public class DailyRevenueWriter {
+    private static final String INSERT_DELTA_SQL =
+            "INSERT INTO daily_revenue_delta (revenue_day, product_id, category_id, revenue, units) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String LAST_ID_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM daily_revenue_delta ORDER BY id LIMIT ?) oldest";
+
+    private static final String SUM_DELTAS_SQL = """
+            SELECT revenue_day, product_id, MAX(category_id) AS category_id, SUM(revenue) AS revenue,
+                   SUM(units) AS units, COUNT(*) AS row_count
+            FROM daily_revenue_delta
+            WHERE id <= ?
+            GROUP BY revenue_day, product_id
+            """;
+
+    private static final String MERGE_SQL = """
+            MERGE INTO daily_product_revenue t
+            USING (VALUES (CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS DECIMAL(19, 2)), CAST(? AS BIGINT)))
+                AS s (revenue_day, product_id, category_id, revenue, units)
+            ON t.revenue_day = s.revenue_day AND t.product_id = s.product_id
+            WHEN MATCHED THEN UPDATE SET revenue = t.revenue + s.revenue, units = t.units + s.units
+            WHEN NOT MATCHED THEN INSERT (revenue_day, product_id, category_id, revenue, units)
+                VALUES (s.revenue_day, s.product_id, s.category_id, s.revenue, s.units)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void add(Collection<OrderItem> items) {
+        Deltas deltas = new Deltas();
+        items.forEach(deltas::add);
+        apply(deltas);
+    }
+
+    public void subtract(Collection<OrderItem> items) {
+        Deltas deltas = new Deltas();
+        items.forEach(deltas::subtract);
+        apply(deltas);
+    }
+
+    public void apply(Deltas deltas) {
+        if (deltas.byKey.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.byKey.size());
+        deltas.byKey.forEach((key, delta) -> rows.add(new Object[]{
+                Date.valueOf(key.day()), key.productId(), delta.categoryId, delta.revenue, delta.units}));
+        jdbcTemplate.batchUpdate(INSERT_DELTA_SQL, rows);
+        deltas.byKey.clear();
+    }
+
+    // Merges up to limit of the oldest journal rows into daily_product_revenue and removes them; returns how many
+    // were folded. Must run in a transaction. The rows are deleted before the aggregate is touched, so a second
+    // folder (another instance) blocks on them. If it finds fewer rows left to delete than it summed, it throws
+    // ConcurrencyFailureException and its transaction is rolled back, to be retried on the next run.
+    public int fold(int limit) {
+        Long lastId = jdbcTemplate.queryForObject(LAST_ID_SQL, Long.class, limit);
+        if (lastId == null) {
+            return 0;
+        }
+        List<Object[]> sums = new ArrayList<>();
+        long[] summed = new long[1];
+        jdbcTemplate.query(SUM_DELTAS_SQL, rs -> {
+            sums.add(new Object[]{rs.getDate("revenue_day"), rs.getLong("product_id"), rs.getObject("category_id", Long.class),
+                    rs.getBigDecimal("revenue"), rs.getLong("units")});
+            summed[0] += rs.getLong("row_count");
+        }, lastId);
+        int deleted = jdbcTemplate.update("DELETE FROM daily_revenue_delta WHERE id <= ?", lastId);
+        if (deleted != summed[0]) {
+            throw new ConcurrencyFailureException("Revenue journal up to id " + lastId + " changed while folding: summed "
+                    + summed[0] + " rows, deleted " + deleted);
+        }
+        jdbcTemplate.batchUpdate(MERGE_SQL, sums);
+        return deleted;
+    }
+
+    // Collects changes in memory; values are read when an item is added, so subtract an item before mutating it
+    public static final class Deltas {
+        private final Map<Key, Delta> byKey = new LinkedHashMap<>();
+
+        public void add(OrderItem item) {
+            accumulate(item, 1);
+        }
+
+        public void subtract(OrderItem item) {
+            accumulate(item, -1);
+        }
+
+        private void accumulate(OrderItem item, int sign) {
+            // Items without an order date, product or amount cannot be attributed to a day and are not counted
+            if (item.getOrder() == null || item.getOrder().getOrderDate() == null || item.getProduct() == null
+                    || item.getPrice() == null || item.getQuantity() == null) {
+                return;
+            }
+            Key key = new Key(item.getOrder().getOrderDate().toLocalDate(), item.getProduct().getId());
+            Delta delta = byKey.computeIfAbsent(key, k -> new Delta(
+                    item.getProduct().getCategory() != null ? item.getProduct().getCategory().getId() : null));
+            delta.revenue = delta.revenue.add(item.getPrice().multiply(BigDecimal.valueOf((long) sign * item.getQuantity())));
+            delta.units += (long) sign * item.getQuantity();
+        }
+    }
+
+    private record Key(LocalDate day, Long productId) {
+    }
+
+    private static final class Delta {
+        private final Long categoryId;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long units;
+
+        private Delta(Long categoryId) {
+            this.categoryId = categoryId;
+        }
+    }
+}
@@ -1,11 +1,26 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.repository.projection.OrderItemView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    // Read model: foreign keys only, so the eager order, its user and the product are never loaded.
+    // Unlike OrderRepository.findAllItemViews this includes items that belong to no order.
+    @Query("select i.id as id, i.order.id as orderId, i.product.id as productId, i.quantity as quantity, i.price as price, i.version as version " +
+            "from OrderItem i where i.id = :id")
+    Optional<OrderItemView> findViewById(@Param("id") Long id);
+
+    @Query("select i.id as id, i.order.id as orderId, i.product.id as productId, i.quantity as quantity, i.price as price, i.version as version " +
+            "from OrderItem i order by i.id")
+    List<OrderItemView> findAllViews();
 }
 
 
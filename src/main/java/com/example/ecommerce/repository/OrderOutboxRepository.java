@@ -0,0 +1,86 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.outbox.OrderEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Plain JDBC on order_outbox. append joins the caller's transaction, so an event exists exactly when the order
+// change it describes was committed.
+@Repository
+@RequiredArgsConstructor
+public class OrderOutboxRepository {
+    private static final String INSERT_SQL = "INSERT INTO order_outbox "
+            + "(event_type, order_id, user_id, status, previous_status, occurred_at, attempts) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String SELECT_SQL = "SELECT id, event_type, order_id, user_id, status, previous_status, "
+            + "occurred_at FROM order_outbox WHERE parked_at IS NULL ORDER BY id LIMIT ?";
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final RowMapper<OrderEvent> EVENT_MAPPER = (rs, rowNum) -> new OrderEvent(
+            rs.getLong("id"),
+            OrderEvent.Type.valueOf(rs.getString("event_type")),
+            rs.getLong("order_id"),
+            rs.getObject("user_id", Long.class),
+            rs.getString("status"),
+            rs.getString("previous_status"),
+            rs.getTimestamp("occurred_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(OrderEvent.Type type, Order order, String previousStatus) {
+        jdbcTemplate.update(INSERT_SQL, type.name(), order.getId(),
+                order.getUser() != null ? order.getUser().getId() : null,
+                order.getStatus(), previousStatus, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // Parked events are left out
+    public List<OrderEvent> findOldest(int limit) {
+        return jdbcTemplate.query(SELECT_SQL, EVENT_MAPPER, limit);
+    }
+
+    // Sink name to the ids it already took, for the events in the chunk that have any recorded
+    public Map<String, Set<Long>> findDeliveries(List<OrderEvent> chunk) {
+        Map<String, Set<Long>> deliveries = new HashMap<>();
+        jdbcTemplate.query("SELECT event_id, sink FROM order_outbox_delivery WHERE event_id BETWEEN ? AND ?",
+                rs -> {
+                    deliveries.computeIfAbsent(rs.getString("sink"), sink -> new HashSet<>()).add(rs.getLong("event_id"));
+                },
+                chunk.get(0).id(), chunk.get(chunk.size() - 1).id());
+        return deliveries;
+    }
+
+    public void recordDeliveries(String sink, Collection<Long> eventIds) {
+        jdbcTemplate.batchUpdate("INSERT INTO order_outbox_delivery (event_id, sink) VALUES (?, ?)",
+                eventIds.stream().map(id -> new Object[]{id, sink}).toList());
+    }
+
+    // Charges the event one attempt and parks it once it has used maxAttempts; returns whether it was parked
+    public boolean recordFailure(OrderEvent event, String error, int maxAttempts) {
+        String lastError = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        jdbcTemplate.update("UPDATE order_outbox SET attempts = attempts + 1, last_error = ? WHERE id = ?",
+                lastError, event.id());
+        return jdbcTemplate.update("UPDATE order_outbox SET parked_at = ? WHERE id = ? AND attempts >= ?",
+                Timestamp.valueOf(LocalDateTime.now()), event.id(), maxAttempts) == 1;
+    }
+
+    // By id rather than by range: a transaction that commits late can leave a lower id behind the chunk just read
+    public void delete(List<OrderEvent> events) {
+        jdbcTemplate.batchUpdate("DELETE FROM order_outbox WHERE id = ?",
+                events.stream().map(event -> new Object[]{event.id()}).toList());
+    }
+
+    public void deleteDeliveries(List<OrderEvent> events) {
+        jdbcTemplate.batchUpdate("DELETE FROM order_outbox_delivery WHERE event_id = ?",
+                events.stream().map(event -> new Object[]{event.id()}).toList());
+    }
+}
@@ -1,10 +1,34 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.repository.projection.OrderItemView;
+import com.example.ecommerce.repository.projection.OrderSummaryView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-}
+    // Read model: order rows and their items are fetched as flat projections in two
+    // queries, so neither the eager user association nor its roles are ever loaded
+    @Query("select o.id as id, o.user.id as userId, o.orderDate as orderDate, o.status as status, o.version as version " +
+            "from Order o order by o.id")
+    List<OrderSummaryView> findAllSummaries();
+
+    @Query("select o.id as id, o.user.id as userId, o.orderDate as orderDate, o.status as status, o.version as version " +
+            "from Order o where o.id = :id")
+    Optional<OrderSummaryView> findSummaryById(@Param("id") Long id);
 
+    @Query("select i.id as id, i.order.id as orderId, i.product.id as productId, i.quantity as quantity, i.price as price, i.version as version " +
+            "from OrderItem i where i.order.id is not null order by i.id")
+    List<OrderItemView> findAllItemViews();
+
+    @Query("select i.id as id, i.order.id as orderId, i.product.id as productId, i.quantity as quantity, i.price as price, i.version as version " +
+            "from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<OrderItemView> findItemViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
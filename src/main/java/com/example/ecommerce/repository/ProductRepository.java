@@ -1,10 +1,43 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ProductDto;
 import com.example.ecommerce.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
+    // Read model: ProductDto columns only, so the eager category is never loaded
+    @Query("select new com.example.ecommerce.dto.ProductDto(p.id, p.name, p.price, p.description, p.category.id, p.version) " +
+            "from Product p where p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    @Query("select new com.example.ecommerce.dto.ProductDto(p.id, p.name, p.price, p.description, p.category.id, p.version) " +
+            "from Product p order by p.id")
+    List<ProductDto> findAllAsDto();
 
+    // Keyset (seek) pagination: callers pass the last id they saw instead of an offset
+    @Query("select new com.example.ecommerce.dto.ProductDto(p.id, p.name, p.price, p.description, p.category.id, p.version) " +
+            "from Product p where p.id > :afterId order by p.id")
+    List<ProductDto> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.example.ecommerce.dto.ProductDto(p.id, p.name, p.price, p.description, p.category.id, p.version) " +
+            "from Product p where p.category.id = :categoryId and p.id > :afterId order by p.id")
+    List<ProductDto> findPageByCategoryAfter(@Param("categoryId") Long categoryId, @Param("afterId") Long afterId, Limit limit);
+
+    // Streams DTOs straight off the JDBC cursor; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.ecommerce.dto.ProductDto(p.id, p.name, p.price, p.description, p.category.id, p.version) " +
+            "from Product p order by p.id")
+    Stream<ProductDto> streamAllAsDto();
+}
@@ -0,0 +1,72 @@
+package com.example.ecommerce.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+    private static final String MERGE_SQL = """
+            MERGE INTO product_stock t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (product_id, delta)
+            ON t.product_id = s.product_id
+            WHEN MATCHED THEN UPDATE SET quantity = t.quantity + s.delta
+            WHEN NOT MATCHED THEN INSERT (product_id, quantity) VALUES (s.product_id, s.delta)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Null when the product has no stock row
+    public Long findQuantity(long productId) {
+        return jdbcTemplate.query("SELECT quantity FROM product_stock WHERE product_id = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, productId);
+    }
+
+    // False when the product has fewer units or no stock row
+    public boolean take(long productId, long quantity) {
+        return jdbcTemplate.update("UPDATE product_stock SET quantity = quantity - ? WHERE product_id = ? AND quantity >= ?",
+                quantity, productId, quantity) == 1;
+    }
+
+    // Takes up to wanted units off the row and returns how many it got: 0 when none are left, null without a
+    // stock row. In a transaction the row stays locked until it ends.
+    public Long allocate(long productId, long wanted) {
+        while (true) {
+            Long quantity = jdbcTemplate.query("SELECT quantity FROM product_stock WHERE product_id = ? FOR UPDATE",
+                    rs -> rs.next() ? rs.getLong(1) : null, productId);
+            if (quantity == null) {
+                return null;
+            }
+            long granted = Math.min(quantity, wanted);
+            if (granted <= 0) {
+                return 0L;
+            }
+            // Only fails outside a transaction, when another node took units in between
+            if (take(productId, granted)) {
+                return granted;
+            }
+        }
+    }
+
+    // Products without a stock row stay untracked. Rows are updated in productId order, so two restores can't
+    // lock them crosswise.
+    public void restore(Map<Long, Long> quantitiesByProduct) {
+        List<Object[]> rows = new ArrayList<>(quantitiesByProduct.size());
+        new TreeMap<>(quantitiesByProduct).forEach((productId, quantity) -> rows.add(new Object[]{quantity, productId}));
+        jdbcTemplate.batchUpdate("UPDATE product_stock SET quantity = quantity + ? WHERE product_id = ?", rows);
+    }
+
+    // Relative updates, one MERGE per product, so concurrent adjustments never overwrite each other; a product
+    // without a row gets one and is tracked from then on
+    public void applyDeltas(Map<Long, Long> deltasByProduct) {
+        List<Object[]> rows = new ArrayList<>(deltasByProduct.size());
+        deltasByProduct.forEach((productId, delta) -> rows.add(new Object[]{productId, delta}));
+        jdbcTemplate.batchUpdate(MERGE_SQL, rows);
+    }
+}
@@ -1,13 +1,36 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.User;
+import com.example.ecommerce.repository.projection.UserRoleRowView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Read model: users and their roles as one flat row per role, ordered by user, instead of
+    // entities with an eagerly loaded role collection and the password hash
+    @Query("select new com.example.ecommerce.repository.projection.UserRoleRowView(u.id, u.username, u.email, u.version, r) " +
+            "from User u left join u.roles r where u.id = :id")
+    List<UserRoleRowView> findRoleRowsById(@Param("id") Long id);
+
+    @Query("select new com.example.ecommerce.repository.projection.UserRoleRowView(u.id, u.username, u.email, u.version, r) " +
+            "from User u left join u.roles r order by u.id")
+    List<UserRoleRowView> findAllRoleRows();
+
     // Custom query methods if needed
     Optional<User> findByUsername(String username);
+
+    // Compare-and-set on the hash, without touching the version: returns 0 when the password changed since it was
+    // read, instead of failing the way a save of the stale entity would
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
\ No newline at end of file
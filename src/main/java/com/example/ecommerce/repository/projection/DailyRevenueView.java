@@ -0,0 +1,10 @@
+package com.example.ecommerce.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailyRevenueView {
+    LocalDate getDay();
+    BigDecimal getRevenue();
+    Long getUnits();
+}
@@ -0,0 +1,12 @@
+package com.example.ecommerce.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface OrderItemView {
+    Long getId();
+    Long getOrderId();
+    Long getProductId();
+    Integer getQuantity();
+    BigDecimal getPrice();
+    Long getVersion();
+}
@@ -0,0 +1,11 @@
+package com.example.ecommerce.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface OrderSummaryView {
+    Long getId();
+    Long getUserId();
+    LocalDateTime getOrderDate();
+    String getStatus();
+    Long getVersion();
+}
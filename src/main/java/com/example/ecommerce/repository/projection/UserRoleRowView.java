@@ -0,0 +1,7 @@
+package com.example.ecommerce.repository.projection;
+
+import com.example.ecommerce.entity.UserRole;
+
+// One row per user and role, with a null role for users that have none
+public record UserRoleRowView(Long id, String username, String email, Long version, UserRole role) {
+}
@@ -0,0 +1,69 @@
+package com.example.ecommerce.revenue;
+
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+// Folds the daily_revenue_delta journal into daily_product_revenue, one chunk per transaction. Scheduled runs never
+// overlap, so within one instance nothing races to create a (day, product) row; across instances
+// DailyRevenueWriter.fold detects the overlap and one side retries. Revenue reports trail checkouts by up to
+// one interval.
+@Slf4j
+public class DailyRevenueFolder implements AutoCloseable {
+    private final DailyRevenueWriter dailyRevenueWriter;
+    private final TransactionOperations transactionOperations;
+    private final int chunkSize;
+    private final Counter folded;
+    private volatile ScheduledFuture<?> task;
+
+    public DailyRevenueFolder(DailyRevenueWriter dailyRevenueWriter, TransactionOperations transactionOperations,
+                              MeterRegistry meterRegistry, int chunkSize) {
+        this.dailyRevenueWriter = dailyRevenueWriter;
+        this.transactionOperations = transactionOperations;
+        this.chunkSize = chunkSize;
+        this.folded = Counter.builder("revenue.deltas.folded")
+                .description("Revenue journal rows merged into daily_product_revenue")
+                .register(meterRegistry);
+    }
+
+    public void start(TaskScheduler scheduler, long intervalMillis) {
+        Duration interval = Duration.ofMillis(intervalMillis);
+        task = scheduler.scheduleWithFixedDelay(this::drain, Instant.now().plus(interval), interval);
+    }
+
+    // Folds full chunks back to back until the journal is empty or a fold fails; returns the number of rows folded
+    public int drain() {
+        int total = 0;
+        try {
+            int count;
+            do {
+                Integer result = transactionOperations.execute(status -> dailyRevenueWriter.fold(chunkSize));
+                count = result != null ? result : 0;
+                total += count;
+                folded.increment(count);
+            } while (count == chunkSize);
+        } catch (ConcurrencyFailureException e) {
+            log.debug("Revenue fold overlapped with another folder, retrying on the next run: {}", e.getMessage());
+        } catch (DataAccessException e) {
+            log.warn("Revenue fold failed, retrying on the next run: {}", e.getMessage());
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        ScheduledFuture<?> scheduled = task;
+        if (scheduled != null) {
+            scheduled.cancel(true);
+        }
+    }
+}
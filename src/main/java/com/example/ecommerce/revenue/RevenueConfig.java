@@ -0,0 +1,26 @@
+package com.example.ecommerce.revenue;
+
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionOperations;
+
+@Configuration
+public class RevenueConfig {
+
+    @Bean
+    public DailyRevenueFolder dailyRevenueFolder(DailyRevenueWriter dailyRevenueWriter,
+                                                 TransactionOperations transactionOperations,
+                                                 MeterRegistry meterRegistry, TaskScheduler taskScheduler,
+                                                 @Value("${revenue.fold.chunk-size:1000}") int chunkSize,
+                                                 @Value("${revenue.fold.interval-ms:500}") long intervalMillis) {
+        DailyRevenueFolder folder = new DailyRevenueFolder(dailyRevenueWriter, transactionOperations, meterRegistry, chunkSize);
+        if (intervalMillis > 0) {
+            folder.start(taskScheduler, intervalMillis);
+        }
+        return folder;
+    }
+}
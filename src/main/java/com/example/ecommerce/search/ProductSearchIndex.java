@@ -0,0 +1,230 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.ProductSearchResultDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// In-memory inverted index over product name and description. Reads are lock free; writes are
+// serialized so a product's postings, document and term counts always change together. A rebuild reads the
+// products without holding the write lock; writes made meanwhile are replayed onto the new index before it
+// replaces the old one.
+@Component
+public class ProductSearchIndex {
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "this", "to", "with");
+
+    // Replaced wholesale on rebuild so readers never see a half-built index
+    private volatile State state = new State();
+    // Writes made while a rebuild is reading products, guarded by this; null when no rebuild runs
+    private List<Consumer<State>> duringRebuild;
+    private final Object rebuildLock = new Object();
+
+    private static final class State {
+        private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        // Term to number of products containing it
+        private final ConcurrentSkipListMap<String, Integer> terms = new ConcurrentSkipListMap<>();
+    }
+
+    private record Document(String name, BigDecimal price, Long categoryId, Map<String, Integer> weights) {
+    }
+
+    public synchronized void index(ProductDto product) {
+        write(current -> index(current, product));
+    }
+
+    private static void index(State state, ProductDto product) {
+        remove(state, product.getId());
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(product.getName())) {
+            weights.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(product.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        weights.forEach((term, weight) -> {
+            state.postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(product.getId(), weight);
+            state.terms.merge(term, 1, Integer::sum);
+        });
+        state.documents.put(product.getId(), new Document(product.getName(), product.getPrice(), product.getCategoryId(), weights));
+    }
+
+    public synchronized void remove(Long productId) {
+        write(current -> remove(current, productId));
+    }
+
+    private static void remove(State state, Long productId) {
+        Document document = state.documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        document.weights().keySet().forEach(term -> {
+            state.postings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(productId);
+                return ids.isEmpty() ? null : ids;
+            });
+            state.terms.computeIfPresent(term, (t, count) -> count > 1 ? count - 1 : null);
+        });
+    }
+
+    // Deleting a category cascades to its products
+    public synchronized void removeCategory(Long categoryId) {
+        write(current -> current.documents.entrySet().stream()
+                .filter(entry -> categoryId.equals(entry.getValue().categoryId()))
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(productId -> remove(current, productId)));
+    }
+
+    // Callers hold the write lock
+    private void write(Consumer<State> change) {
+        change.accept(state);
+        if (duringRebuild != null) {
+            duringRebuild.add(change);
+        }
+    }
+
+    // Searches keep using the old index, and writes keep going to it, until the new one is complete
+    public void rebuild(Stream<ProductDto> products) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                duringRebuild = new ArrayList<>();
+            }
+            State rebuilt = new State();
+            try {
+                products.forEach(product -> index(rebuilt, product));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    duringRebuild = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                duringRebuild.forEach(change -> change.accept(rebuilt));
+                duringRebuild = null;
+                state = rebuilt;
+            }
+        }
+    }
+
+    public int size() {
+        return state.documents.size();
+    }
+
+    // Products containing every query term, ranked by summed term weight times inverse document frequency
+    public List<ProductSearchResultDto> search(String query, int limit) {
+        State current = state;
+        List<String> queryTerms = tokenize(query).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Map<Long, Integer>> termPostings = new ArrayList<>(queryTerms.size());
+        for (String term : queryTerms) {
+            Map<Long, Integer> ids = current.postings.get(term);
+            if (ids == null) {
+                return List.of();
+            }
+            termPostings.add(ids);
+        }
+        double total = Math.max(1, current.documents.size());
+        double[] idf = termPostings.stream().mapToDouble(ids -> Math.log(1 + total / Math.max(1, ids.size()))).toArray();
+        // Walk the rarest term's postings and probe the others
+        int rarest = 0;
+        for (int i = 1; i < termPostings.size(); i++) {
+            if (termPostings.get(i).size() < termPostings.get(rarest).size()) {
+                rarest = i;
+            }
+        }
+
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, byScore);
+        candidates:
+        for (Long id : termPostings.get(rarest).keySet()) {
+            double score = 0;
+            for (int i = 0; i < termPostings.size(); i++) {
+                Integer weight = termPostings.get(i).get(id);
+                if (weight == null) {
+                    continue candidates;
+                }
+                score += weight * idf[i];
+            }
+            top.offer(Map.entry(id, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<ProductSearchResultDto> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Map.Entry<Long, Double> hit = top.poll();
+            Document document = current.documents.get(hit.getKey());
+            if (document != null) {
+                results.add(ProductSearchResultDto.builder()
+                        .id(hit.getKey())
+                        .name(document.name())
+                        .price(document.price())
+                        .categoryId(document.categoryId())
+                        .score(hit.getValue())
+                        .build());
+            }
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    // Indexed terms starting with the prefix, most common first
+    public List<String> autocomplete(String prefix, int limit) {
+        String normalized = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Keeps only the best limit terms while walking every match, so nothing is cut off before ranking
+        Comparator<Map.Entry<String, Integer>> best = Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(limit + 1, best.reversed());
+        NavigableMap<String, Integer> matches = state.terms.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Integer> match : matches.entrySet()) {
+            top.offer(Map.entry(match.getKey(), match.getValue()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        return top.stream().sorted(best).map(Map.Entry::getKey).toList();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
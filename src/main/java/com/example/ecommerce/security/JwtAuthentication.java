@@ -0,0 +1,46 @@
+package com.example.ecommerce.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+// Authentication for a verified bearer token. Unlike UsernamePasswordAuthenticationToken it takes the
+// interned authority list as is instead of copying it, and it cannot be modified once created.
+public record JwtAuthentication(String username, List<GrantedAuthority> authorities) implements Authentication {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return username;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        throw new IllegalArgumentException("JwtAuthentication is immutable");
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ecommerce.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Remembers tokens whose signature has already been checked, so repeat requests with the
+// same bearer token skip parsing and HMAC verification until the token's exp claim passes.
+// Entries are keyed by the signature segment alone: HMAC ties it to the header and payload it
+// was computed over, and a token that copies it onto another payload only gets back the claims
+// it was issued with. A SHA-256 of the whole token made a hit cost over a third of the
+// verification it skips. Raw tokens are still never retained on the heap.
+@Component
+public class JwtVerificationCache {
+    private final JwtVerifier jwtVerifier;
+    private final Cache<String, VerifiedToken> cache;
+
+    // No token JwtUtil issues lives longer than jwt.expiration, which bounds how long an entry outlives its
+    // token. Expiring each entry at its own exp instead made Caffeine's reads cost more than the rest of a hit.
+    public JwtVerificationCache(JwtVerifier jwtVerifier, @Value("${jwt.cache.max-size:10000}") long maxSize,
+                                @Value("${jwt.expiration}") long maxLifetimeMillis) {
+        this.jwtVerifier = jwtVerifier;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(maxLifetimeMillis))
+                .build();
+    }
+
+    // Returns the verified token, or throws a JwtException if it is invalid or expired
+    public VerifiedToken verify(String token) {
+        String key = signature(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null && cached.expiresAt().toEpochMilli() > System.currentTimeMillis()) {
+            return cached;
+        }
+        VerifiedToken verified = jwtVerifier.verify(token);
+        cache.put(key, verified);
+        return verified;
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static String signature(String token) {
+        return token.substring(token.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.entity.UserRole;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Verifies the HS256 tokens issued by JwtUtil without going through jjwt: the key is decoded once, Mac
+// instances are pooled, and only sub, exp, nbf and rm (or roles) are read from the payload with a streaming
+// Jackson parser. Any other claim is skipped without being materialised. Failures throw the same JwtException
+// types jjwt would.
+@Component
+public class JwtVerifier {
+    private static final String ALGORITHM = "HmacSHA256";
+    // Base64url of {"alg":"HS256"}, the header jjwt writes; anything else goes through the JSON reader
+    private static final byte[] HS256_HEADER = "eyJhbGciOiJIUzI1NiJ9".getBytes(StandardCharsets.US_ASCII);
+    private static final UserRole[] ROLES = UserRole.values();
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final SecretKeySpec key;
+    // Pooled rather than thread-local so virtual threads don't each initialise their own Mac
+    private final Queue<Mac> macs = new ConcurrentLinkedQueue<>();
+
+    public JwtVerifier(@Value("${jwt.secret}") String secret) {
+        // jjwt treats a String signing key as base64, so this yields the same key bytes JwtUtil signs with
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(secret), ALGORITHM);
+        macs.offer(newMac());
+    }
+
+    public VerifiedToken verify(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new MalformedJwtException("JWT must consist of a header, payload and signature");
+        }
+        byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+        checkHeader(ascii, firstDot);
+        checkSignature(ascii, secondDot);
+
+        Claims claims = new ClaimsReader(decode(ascii, firstDot + 1, secondDot)).read();
+        if (claims.subject == null) {
+            throw new MalformedJwtException("Token has no subject");
+        }
+        if (claims.expiresAt == null) {
+            throw new MalformedJwtException("Token has no expiration");
+        }
+        Instant now = Instant.now();
+        if (!claims.expiresAt.isAfter(now)) {
+            throw new ExpiredJwtException(null, null, "JWT expired at " + claims.expiresAt);
+        }
+        if (claims.notBefore != null && claims.notBefore.isAfter(now)) {
+            throw new PrematureJwtException(null, null, "JWT must not be accepted before " + claims.notBefore);
+        }
+        // rm is the role bitmask JwtUtil writes; tokens issued before it existed only have the roles list
+        int roleMask = claims.roleMask >= 0 ? claims.roleMask : claims.rolesMask;
+        return new VerifiedToken(claims.subject, roleMask & RoleAuthorities.ALL, claims.expiresAt);
+    }
+
+    private void checkHeader(byte[] ascii, int firstDot) {
+        if (Arrays.equals(ascii, 0, firstDot, HS256_HEADER, 0, HS256_HEADER.length)) {
+            return;
+        }
+        String algorithm = new ClaimsReader(decode(ascii, 0, firstDot)).readAlgorithm();
+        if (!"HS256".equals(algorithm)) {
+            throw new MalformedJwtException("Unsupported JWT algorithm: " + algorithm);
+        }
+    }
+
+    private void checkSignature(byte[] ascii, int secondDot) {
+        Mac mac = macs.poll();
+        if (mac == null) {
+            mac = newMac();
+        }
+        byte[] expected;
+        try {
+            mac.update(ascii, 0, secondDot);
+            expected = mac.doFinal();
+        } finally {
+            macs.offer(mac);
+        }
+        if (!MessageDigest.isEqual(expected, decode(ascii, secondDot + 1, ascii.length))) {
+            throw new SignatureException("JWT signature does not match locally computed signature");
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+
+    private static byte[] decode(byte[] ascii, int from, int to) {
+        try {
+            return Base64.getUrlDecoder().decode(Arrays.copyOfRange(ascii, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("JWT segment is not valid base64url", e);
+        }
+    }
+
+    private static final class Claims {
+        private String subject;
+        private Instant expiresAt;
+        private Instant notBefore;
+        private int roleMask = -1;
+        private int rolesMask;
+    }
+
+    // Streams over the decoded JSON with Jackson: only the fields we use are read, anything else is skipped
+    // without being materialised
+    private static final class ClaimsReader {
+        private final byte[] json;
+
+        ClaimsReader(byte[] json) {
+            this.json = json;
+        }
+
+        Claims read() {
+            Claims claims = new Claims();
+            parseObject((field, parser) -> {
+                switch (field) {
+                    case "sub" -> claims.subject = readString(parser);
+                    case "exp" -> claims.expiresAt = Instant.ofEpochSecond(readLong(parser));
+                    case "nbf" -> claims.notBefore = Instant.ofEpochSecond(readLong(parser));
+                    case "rm" -> claims.roleMask = (int) readLong(parser) & RoleAuthorities.ALL;
+                    case "roles" -> claims.rolesMask = readRoles(parser);
+                    default -> parser.skipChildren();
+                }
+            });
+            return claims;
+        }
+
+        String readAlgorithm() {
+            String[] algorithm = new String[1];
+            parseObject((field, parser) -> {
+                if (field.equals("alg")) {
+                    algorithm[0] = readString(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            });
+            return algorithm[0];
+        }
+
+        // Calls the handler with the parser on each top-level field's value; the object must be all there is
+        private void parseObject(FieldHandler handler) {
+            try (JsonParser parser = JSON.createParser(json)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw malformed();
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    handler.accept(field, parser);
+                }
+                if (parser.currentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                    throw malformed();
+                }
+            } catch (IOException e) {
+                throw new MalformedJwtException("JWT payload is not a valid JSON object", e);
+            }
+        }
+
+        private static String readString(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.VALUE_STRING) {
+                throw malformed();
+            }
+            return parser.getText();
+        }
+
+        private static long readLong(JsonParser parser) throws IOException {
+            return switch (parser.currentToken()) {
+                case VALUE_NUMBER_INT -> parser.getLongValue();
+                case VALUE_NUMBER_FLOAT -> (long) parser.getDoubleValue();
+                default -> throw malformed();
+            };
+        }
+
+        // Unknown role names and non-string entries are dropped, matching what JwtUtil.extractRoles always did
+        private static int readRoles(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return 0;
+            }
+            int mask = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_STRING) {
+                    parser.skipChildren();
+                    continue;
+                }
+                for (UserRole role : ROLES) {
+                    if (role.name().equals(parser.getText())) {
+                        mask |= RoleAuthorities.bit(role);
+                    }
+                }
+            }
+            return mask;
+        }
+
+        private static MalformedJwtException malformed() {
+            return new MalformedJwtException("JWT payload is not a valid JSON object");
+        }
+    }
+
+    private interface FieldHandler {
+        void accept(String field, JsonParser parser) throws IOException;
+    }
+}
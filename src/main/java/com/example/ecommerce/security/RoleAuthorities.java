@@ -0,0 +1,66 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.entity.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Interned roles and authorities for every combination of UserRole, addressed by a bitmask with one bit per
+// role ordinal. Tokens carry the mask in their "rm" claim, so new UserRole values must only ever be appended.
+public final class RoleAuthorities {
+    private static final UserRole[] ROLES = UserRole.values();
+    public static final int ALL = (1 << ROLES.length) - 1;
+
+    private static final List<List<UserRole>> ROLE_SETS;
+    private static final List<List<GrantedAuthority>> AUTHORITY_SETS;
+
+    static {
+        List<GrantedAuthority> single = new ArrayList<>(ROLES.length);
+        for (UserRole role : ROLES) {
+            single.add(new SimpleGrantedAuthority("ROLE_" + role.name()));
+        }
+        List<List<UserRole>> roleSets = new ArrayList<>(ALL + 1);
+        List<List<GrantedAuthority>> authoritySets = new ArrayList<>(ALL + 1);
+        for (int mask = 0; mask <= ALL; mask++) {
+            List<UserRole> roles = new ArrayList<>(Integer.bitCount(mask));
+            List<GrantedAuthority> authorities = new ArrayList<>(Integer.bitCount(mask));
+            for (UserRole role : ROLES) {
+                if ((mask & bit(role)) != 0) {
+                    roles.add(role);
+                    authorities.add(single.get(role.ordinal()));
+                }
+            }
+            roleSets.add(List.copyOf(roles));
+            authoritySets.add(List.copyOf(authorities));
+        }
+        ROLE_SETS = List.copyOf(roleSets);
+        AUTHORITY_SETS = List.copyOf(authoritySets);
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static int bit(UserRole role) {
+        return 1 << role.ordinal();
+    }
+
+    public static int mask(Collection<UserRole> roles) {
+        int mask = 0;
+        for (UserRole role : roles) {
+            mask |= bit(role);
+        }
+        return mask;
+    }
+
+    // Bits for roles this build doesn't know about are ignored, as unknown role names always were
+    public static List<UserRole> roles(int mask) {
+        return ROLE_SETS.get(mask & ALL);
+    }
+
+    public static List<GrantedAuthority> authorities(int mask) {
+        return AUTHORITY_SETS.get(mask & ALL);
+    }
+}
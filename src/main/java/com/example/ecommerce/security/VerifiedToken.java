@@ -0,0 +1,21 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.entity.UserRole;
+
+import java.time.Instant;
+import java.util.List;
+
+// Result of a single signature-checked parse of a bearer token. Roles are kept as a RoleAuthorities bitmask.
+public record VerifiedToken(String username, int roleMask, Instant expiresAt) {
+    public List<UserRole> roles() {
+        return RoleAuthorities.roles(roleMask);
+    }
+
+    public JwtAuthentication authentication() {
+        return new JwtAuthentication(username, RoleAuthorities.authorities(roleMask));
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
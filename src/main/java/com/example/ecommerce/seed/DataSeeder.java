@@ -0,0 +1,174 @@
+package com.example.ecommerce.seed;
+
+import com.example.ecommerce.batch.RevenueBackfillJobConfig;
+import com.example.ecommerce.entity.UserRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Fills an empty database with a production-sized dataset before the app starts serving:
+ *   java -jar target/ecommerce-0.0.1-SNAPSHOT.jar --spring.profiles.active=seed
+ * Rows are written with explicit ids through JDBC batches, then the id generators are moved past them.
+ * Every seeded user is named userN with password seed.password; user1 is also an ADMIN.
+ * Runs once all beans exist but before the web server starts, so no request sees a half-filled database.
+ */
+@Slf4j
+@Component
+@Profile("seed")
+public class DataSeeder implements SmartInitializingSingleton {
+    private static final String[] STATUSES = {"PLACED", "SHIPPED", "DELIVERED"};
+    private static final String[] ADJECTIVES = {"red", "blue", "green", "black", "white", "wooden", "steel",
+            "compact", "deluxe", "portable", "wireless", "classic", "organic", "smart", "vintage"};
+    private static final String[] NOUNS = {"lamp", "chair", "table", "kettle", "headphones", "backpack", "mug",
+            "keyboard", "jacket", "notebook", "speaker", "blender", "camera", "sofa", "watch"};
+    // Matches the allocationSize of order_items_seq; Hibernate treats the sequence value as the top of a block
+    private static final int ORDER_ITEM_ID_BLOCK = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${seed.users:100000}")
+    private int userCount;
+
+    @Value("${seed.categories:50}")
+    private int categoryCount;
+
+    @Value("${seed.products:100000}")
+    private int productCount;
+
+    @Value("${seed.orders:250000}")
+    private int orderCount;
+
+    @Value("${seed.items-per-order:4}")
+    private int itemsPerOrder;
+
+    @Value("${seed.order-days:90}")
+    private int orderDays;
+
+    @Value("${seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${seed.password:Password@123}")
+    private String password;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Skipping seed data: users table already has {} rows", existing);
+            return;
+        }
+        long start = System.nanoTime();
+        Random random = new Random(randomSeed);
+        seedUsers();
+        seedCategories();
+        BigDecimal[] prices = seedProducts(random);
+        seedOrders(random, prices);
+        restartIdentity("users", userCount);
+        restartIdentity("categories", categoryCount);
+        restartIdentity("products", productCount);
+        restartIdentity("orders", orderCount);
+        jdbcTemplate.execute("ALTER SEQUENCE order_items_seq RESTART WITH "
+                + ((long) orderCount * itemsPerOrder + ORDER_ITEM_ID_BLOCK));
+        RevenueBackfillJobConfig.rebuild(jdbcTemplate);
+        log.info("Seeded {} users, {} categories, {} products, {} orders and {} order items in {} ms",
+                userCount, categoryCount, productCount, orderCount, (long) orderCount * itemsPerOrder,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void seedUsers() {
+        // One hash for everyone: hashing 100k passwords at full cost would take longer than the rest of the seed
+        String hash = passwordEncoder.encode(password);
+        List<Object[]> users = new ArrayList<>(batchSize);
+        List<Object[]> roles = new ArrayList<>(batchSize);
+        for (long id = 1; id <= userCount; id++) {
+            users.add(new Object[]{id, "user" + id, hash, "user" + id + "@seed.local"});
+            roles.add(new Object[]{id, (id == 1 ? UserRole.ADMIN : UserRole.CUSTOMER).name()});
+            if (users.size() == batchSize) {
+                flush("INSERT INTO users (id, username, password, email, version) VALUES (?, ?, ?, ?, 0)", users);
+                flush("INSERT INTO user_roles (user_id, role) VALUES (?, ?)", roles);
+            }
+        }
+        flush("INSERT INTO users (id, username, password, email, version) VALUES (?, ?, ?, ?, 0)", users);
+        flush("INSERT INTO user_roles (user_id, role) VALUES (?, ?)", roles);
+    }
+
+    private void seedCategories() {
+        List<Object[]> categories = new ArrayList<>(categoryCount);
+        for (long id = 1; id <= categoryCount; id++) {
+            categories.add(new Object[]{id, "Category " + id});
+        }
+        flush("INSERT INTO categories (id, name) VALUES (?, ?)", categories);
+    }
+
+    private BigDecimal[] seedProducts(Random random) {
+        BigDecimal[] prices = new BigDecimal[productCount + 1];
+        List<Object[]> products = new ArrayList<>(batchSize);
+        for (int id = 1; id <= productCount; id++) {
+            String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            String noun = NOUNS[random.nextInt(NOUNS.length)];
+            prices[id] = BigDecimal.valueOf(100 + random.nextInt(50_000), 2);
+            Long categoryId = categoryCount == 0 ? null : (long) (1 + random.nextInt(categoryCount));
+            products.add(new Object[]{(long) id, adjective + " " + noun + " " + id, prices[id],
+                    "A " + adjective + " " + noun + " for everyday use", categoryId});
+            if (products.size() == batchSize) {
+                flush("INSERT INTO products (id, name, price, description, category_id, version) VALUES (?, ?, ?, ?, ?, 0)", products);
+            }
+        }
+        flush("INSERT INTO products (id, name, price, description, category_id, version) VALUES (?, ?, ?, ?, ?, 0)", products);
+        return prices;
+    }
+
+    private void seedOrders(Random random, BigDecimal[] prices) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> orders = new ArrayList<>(batchSize);
+        List<Object[]> items = new ArrayList<>(batchSize);
+        long itemId = 0;
+        for (long id = 1; id <= orderCount; id++) {
+            LocalDateTime orderDate = now.minusMinutes(random.nextInt(Math.max(1, orderDays) * 24 * 60));
+            orders.add(new Object[]{id, 1 + random.nextInt(userCount), Timestamp.valueOf(orderDate),
+                    STATUSES[random.nextInt(STATUSES.length)]});
+            for (int i = 0; i < itemsPerOrder; i++) {
+                int productId = 1 + random.nextInt(productCount);
+                items.add(new Object[]{++itemId, id, (long) productId, 1 + random.nextInt(3), prices[productId]});
+            }
+            // Orders go first so the items' foreign keys always resolve
+            if (items.size() >= batchSize) {
+                flush("INSERT INTO orders (id, user_id, order_date, status, version) VALUES (?, ?, ?, ?, 0)", orders);
+                flush("INSERT INTO order_items (id, order_id, product_id, quantity, price, version) VALUES (?, ?, ?, ?, ?, 0)", items);
+            }
+        }
+        flush("INSERT INTO orders (id, user_id, order_date, status, version) VALUES (?, ?, ?, ?, 0)", orders);
+        flush("INSERT INTO order_items (id, order_id, product_id, quantity, price, version) VALUES (?, ?, ?, ?, ?, 0)", items);
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    private void restartIdentity(String table, long seeded) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (seeded + 1));
+    }
+}
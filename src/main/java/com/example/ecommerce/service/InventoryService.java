@@ -0,0 +1,11 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.StockDto;
+import java.util.Map;
+
+public interface InventoryService {
+    void reserveForCheckout(Map<Long, Integer> quantitiesByProduct);
+    void returnToStock(Map<Long, Integer> quantitiesByProduct);
+    StockDto getStock(Long productId);
+    StockDto adjustStock(Long productId, long delta);
+}
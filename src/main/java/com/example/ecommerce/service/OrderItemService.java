@@ -2,12 +2,14 @@ package com.example.ecommerce.service;
 
 import com.example.ecommerce.dto.OrderItemDto;
 import java.util.List;
+import java.util.Set;
 
 public interface OrderItemService {
     OrderItemDto createOrderItem(OrderItemDto orderItemDto);
+    List<OrderItemDto> createOrderItems(List<OrderItemDto> orderItemDtos);
     OrderItemDto getOrderItemById(Long id);
     List<OrderItemDto> getAllOrderItems();
-    OrderItemDto updateOrderItem(Long id, OrderItemDto orderItemDto);
+    OrderItemDto updateOrderItem(Long id, OrderItemDto orderItemDto, Set<Long> expectedVersions);
     void deleteOrderItem(Long id);
 }
 
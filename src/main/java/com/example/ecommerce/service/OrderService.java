@@ -1,13 +1,16 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.dto.CheckoutRequestDto;
 import com.example.ecommerce.dto.OrderDto;
 import java.util.List;
+import java.util.Set;
 
 public interface OrderService {
     OrderDto createOrder(OrderDto orderDto);
+    OrderDto checkout(CheckoutRequestDto request);
     OrderDto getOrderById(Long id);
     List<OrderDto> getAllOrders();
-    OrderDto updateOrder(Long id, OrderDto orderDto);
+    OrderDto updateOrder(Long id, OrderDto orderDto, Set<Long> expectedVersions);
     void deleteOrder(Long id);
 }
 
@@ -0,0 +1,10 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ImportStatusDto;
+import org.springframework.batch.core.JobExecutionException;
+
+public interface ProductImportService {
+    ImportStatusDto startImport(String pattern) throws JobExecutionException;
+    ImportStatusDto getImportStatus(Long executionId);
+    ImportStatusDto restartImport(Long executionId) throws JobExecutionException;
+}
@@ -1,13 +1,22 @@
 package com.example.ecommerce.service;
 
 import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.ProductPageDto;
+import com.example.ecommerce.dto.ProductSearchResultDto;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface ProductService {
     ProductDto createProduct(ProductDto productDto);
     ProductDto getProductById(Long id);
     List<ProductDto> getAllProducts();
-    ProductDto updateProduct(Long id, ProductDto productDto);
+    ProductPageDto getProductsPage(Long afterId, Long categoryId, int size);
+    void streamAllProducts(Consumer<ProductDto> consumer);
+    ProductDto updateProduct(Long id, ProductDto productDto, Set<Long> expectedVersions);
     void deleteProduct(Long id);
+    List<ProductSearchResultDto> searchProducts(String query, int limit);
+    List<String> autocompleteProducts(String prefix, int limit);
+    void rebuildSearchIndex();
 }
 
@@ -0,0 +1,15 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.DailyRevenueDto;
+import com.example.ecommerce.dto.JobStatusDto;
+import org.springframework.batch.core.JobExecutionException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReportService {
+    List<DailyRevenueDto> getProductDailyRevenue(Long productId, LocalDate from, LocalDate to);
+    List<DailyRevenueDto> getCategoryDailyRevenue(Long categoryId, LocalDate from, LocalDate to);
+    JobStatusDto startRevenueBackfill() throws JobExecutionException;
+    JobStatusDto getRevenueBackfillStatus(Long executionId);
+}
@@ -5,11 +5,12 @@ import com.example.ecommerce.dto.UserRegistrationDto;
 import com.example.ecommerce.dto.UserUpdateDto;
 
 import java.util.List;
+import java.util.Set;
 
 public interface UserService {
     UserDto createUser(UserRegistrationDto userDto);
     UserDto getUserById(Long id);
     List<UserDto> getAllUsers();
-    UserDto updateUser(Long id, UserUpdateDto userDto);
+    UserDto updateUser(Long id, UserUpdateDto userDto, Set<Long> expectedVersions);
     void deleteUser(Long id);
 }
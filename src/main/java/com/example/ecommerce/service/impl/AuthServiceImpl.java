@@ -5,19 +5,22 @@ import com.example.ecommerce.dto.LoginResponseDto;
 import com.example.ecommerce.service.AuthService;
 import com.example.ecommerce.entity.User;
 import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.security.PasswordHasher;
 import com.example.ecommerce.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 public class AuthServiceImpl implements AuthService {
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private JwtUtil jwtUtil;
@@ -28,9 +31,19 @@ public class AuthServiceImpl implements AuthService {
         User user = userRepository.findByUsername(loginRequest.getUsername())
                 .orElseThrow(() -> new BadCredentialsException("Invalid username or password"));
         // Validate password
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new BadCredentialsException("Invalid username or password");
         }
+        // Move the stored hash to the current algorithm and cost while the raw password is at hand. Best effort: a
+        // concurrent login that got there first or a password change wins, and a failed write doesn't fail the login.
+        if (passwordHasher.upgradeEncoding(user.getPassword())) {
+            try {
+                userRepository.replacePasswordHash(user.getId(), user.getPassword(),
+                        passwordHasher.encode(loginRequest.getPassword()));
+            } catch (DataAccessException e) {
+                log.warn("Could not upgrade the password hash of user {}: {}", user.getId(), e.getMessage());
+            }
+        }
         // Generate JWT with roles
         String token = jwtUtil.generateToken(user.getUsername(), user.getRoles());
         return new LoginResponseDto(token);
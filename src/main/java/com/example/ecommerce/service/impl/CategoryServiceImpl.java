@@ -1,63 +1,84 @@
 package com.example.ecommerce.service.impl;
 
+import com.example.ecommerce.catalog.CatalogVersion;
+import com.example.ecommerce.config.CacheConfig;
+import com.example.ecommerce.datasource.PrimaryReads;
 import com.example.ecommerce.dto.CategoryDto;
 import com.example.ecommerce.entity.Category;
 import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.search.ProductSearchIndex;
 import com.example.ecommerce.service.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogVersion catalogVersion;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public CategoryDto createCategory(CategoryDto categoryDto) {
         Category category = Category.builder()
                 .name(categoryDto.getName())
                 .build();
         Category saved = categoryRepository.save(category);
         categoryDto.setId(saved.getId());
+        catalogVersion.changed();
         return categoryDto;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORY, key = "#id", unless = "#result == null")
     public CategoryDto getCategoryById(Long id) {
-        return categoryRepository.findById(id)
-                .map(category -> CategoryDto.builder()
-                        .id(category.getId())
-                        .name(category.getName())
-                        .build())
-                .orElse(null);
+        return categoryRepository.findDtoById(id).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    // Keyed by the catalog version, which only moves after the write commits. The eviction on writes runs after
+    // the bump, so a listing read in between would otherwise be served from the old entry under the new ETag.
+    // Read from the primary: a lagging replica would put rows from before the write under the new version.
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "@catalogVersion.current().version()")
     public List<CategoryDto> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(category -> CategoryDto.builder()
-                        .id(category.getId())
-                        .name(category.getName())
-                        .build())
-                .collect(Collectors.toList());
+        return PrimaryReads.call(categoryRepository::findAllAsDto);
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.CATEGORY, key = "#id"),
+        @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
+    })
     public CategoryDto updateCategory(Long id, CategoryDto categoryDto) {
         return categoryRepository.findById(id)
                 .map(category -> {
                     category.setName(categoryDto.getName());
                     Category updated = categoryRepository.save(category);
                     categoryDto.setId(updated.getId());
+                    catalogVersion.changed();
                     return categoryDto;
                 }).orElse(null);
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.CATEGORY, key = "#id"),
+        @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+        // Deleting a category cascades to its products
+        @CacheEvict(cacheNames = CacheConfig.PRODUCT, allEntries = true)
+    })
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        productSearchIndex.removeCategory(id);
+        catalogVersion.changed();
     }
 }
 
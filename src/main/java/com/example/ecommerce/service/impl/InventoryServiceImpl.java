@@ -0,0 +1,89 @@
+package com.example.ecommerce.service.impl;
+
+import com.example.ecommerce.dto.StockDto;
+import com.example.ecommerce.exception.EntityNotFoundException;
+import com.example.ecommerce.inventory.StockLedger;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class InventoryServiceImpl implements InventoryService {
+    private final StockLedger stockLedger;
+    private final ProductRepository productRepository;
+
+    // The units are held right away out of what this node has claimed, so the caller's transaction only touches
+    // product_stock when that runs short; the sale only counts if the order does
+    @Override
+    public void reserveForCheckout(Map<Long, Integer> quantitiesByProduct) {
+        List<StockLedger.Reservation> reservations = stockLedger.reserveAll(quantitiesByProduct);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            boolean confirmed = false;
+            try {
+                reservations.forEach(stockLedger::confirm);
+                confirmed = true;
+            } finally {
+                boolean sold = confirmed;
+                reservations.forEach(reservation -> stockLedger.complete(reservation, sold));
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Throwing here rolls the order back when a hold expired and its units have since been sold
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                reservations.forEach(stockLedger::confirm);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                reservations.forEach(reservation -> stockLedger.complete(reservation, committed));
+            }
+        });
+    }
+
+    // The units go back to product_stock, where any node can claim them once the caller's transaction commits
+    @Override
+    public void returnToStock(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        stockLedger.restore(quantitiesByProduct);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            quantitiesByProduct.keySet().forEach(stockLedger::refresh);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                quantitiesByProduct.keySet().forEach(stockLedger::refresh);
+            }
+        });
+    }
+
+    @Override
+    public StockDto getStock(Long productId) {
+        requireProduct(productId);
+        return new StockDto(productId, stockLedger.available(productId));
+    }
+
+    @Override
+    public StockDto adjustStock(Long productId, long delta) {
+        requireProduct(productId);
+        return new StockDto(productId, stockLedger.adjust(productId, delta));
+    }
+
+    private void requireProduct(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new EntityNotFoundException("Product not found with id: " + productId);
+        }
+    }
+}
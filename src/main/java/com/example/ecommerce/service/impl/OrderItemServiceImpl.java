@@ -4,13 +4,27 @@ import com.example.ecommerce.dto.OrderItemDto;
 import com.example.ecommerce.entity.OrderItem;
 import com.example.ecommerce.entity.Order;
 import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.exception.EntityNotFoundException;
+import com.example.ecommerce.repository.DailyRevenueWriter;
 import com.example.ecommerce.repository.OrderItemRepository;
 import com.example.ecommerce.repository.OrderRepository;
 import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.projection.OrderItemView;
 import com.example.ecommerce.service.OrderItemService;
+import com.example.ecommerce.util.OptimisticRetry;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,10 +33,17 @@ public class OrderItemServiceImpl implements OrderItemService {
     private final OrderItemRepository orderItemRepository;
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final DailyRevenueWriter dailyRevenueWriter;
+    private final OptimisticRetry optimisticRetry;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
 
     @Override
+    @Transactional
     public OrderItemDto createOrderItem(OrderItemDto orderItemDto) {
-        Order order = orderRepository.findById(orderItemDto.getId()).orElse(null);
+        Order order = orderItemDto.getOrderId() != null ? orderRepository.findById(orderItemDto.getOrderId()).orElse(null) : null;
         Product product = productRepository.findById(orderItemDto.getProductId()).orElse(null);
         OrderItem orderItem = OrderItem.builder()
                 .order(order)
@@ -31,50 +52,123 @@ public class OrderItemServiceImpl implements OrderItemService {
                 .price(orderItemDto.getPrice())
                 .build();
         OrderItem saved = orderItemRepository.save(orderItem);
+        dailyRevenueWriter.add(List.of(saved));
         orderItemDto.setId(saved.getId());
+        orderItemDto.setVersion(saved.getVersion());
         return orderItemDto;
     }
 
     @Override
+    @Transactional
+    public List<OrderItemDto> createOrderItems(List<OrderItemDto> orderItemDtos) {
+        // Resolve every referenced order and product up front with one query per type
+        Set<Long> orderIds = collectIds(orderItemDtos, OrderItemDto::getOrderId);
+        Set<Long> productIds = collectIds(orderItemDtos, OrderItemDto::getProductId);
+        Map<Long, Order> orders = orderRepository.findAllById(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        requireAllFound("Order", orderIds, orders.keySet());
+        requireAllFound("Product", productIds, products.keySet());
+
+        List<OrderItem> batch = new ArrayList<>(batchSize);
+        // Revenue is summed across the whole request and merged once at the end
+        DailyRevenueWriter.Deltas revenue = new DailyRevenueWriter.Deltas();
+        for (int i = 0; i < orderItemDtos.size(); i++) {
+            OrderItemDto dto = orderItemDtos.get(i);
+            batch.add(OrderItem.builder()
+                    .order(orders.get(dto.getOrderId()))
+                    .product(products.get(dto.getProductId()))
+                    .quantity(dto.getQuantity())
+                    .price(dto.getPrice())
+                    .build());
+            revenue.add(batch.get(batch.size() - 1));
+            if (batch.size() == batchSize || i == orderItemDtos.size() - 1) {
+                flushBatch(batch, orderItemDtos.subList(i + 1 - batch.size(), i + 1));
+            }
+        }
+        dailyRevenueWriter.apply(revenue);
+        return orderItemDtos;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public OrderItemDto getOrderItemById(Long id) {
-        return orderItemRepository.findById(id)
-                .map(orderItem -> OrderItemDto.builder()
-                        .id(orderItem.getId())
-                        .productId(orderItem.getProduct() != null ? orderItem.getProduct().getId() : null)
-                        .quantity(orderItem.getQuantity())
-                        .price(orderItem.getPrice())
-                        .build())
-                .orElse(null);
+        return orderItemRepository.findViewById(id).map(this::toDto).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderItemDto> getAllOrderItems() {
-        return orderItemRepository.findAll().stream()
-                .map(orderItem -> OrderItemDto.builder()
-                        .id(orderItem.getId())
-                        .productId(orderItem.getProduct() != null ? orderItem.getProduct().getId() : null)
-                        .quantity(orderItem.getQuantity())
-                        .price(orderItem.getPrice())
-                        .build())
+        return orderItemRepository.findAllViews().stream()
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public OrderItemDto updateOrderItem(Long id, OrderItemDto orderItemDto) {
-        return orderItemRepository.findById(id)
+    public OrderItemDto updateOrderItem(Long id, OrderItemDto orderItemDto, Set<Long> expectedVersions) {
+        return optimisticRetry.update(expectedVersions, () -> orderItemRepository.findById(id)
                 .map(orderItem -> {
+                    OptimisticRetry.requireVersion(expectedVersions, orderItem.getVersion(), "Order item " + id);
+                    DailyRevenueWriter.Deltas revenue = new DailyRevenueWriter.Deltas();
+                    revenue.subtract(orderItem);
                     Product product = productRepository.findById(orderItemDto.getProductId()).orElse(null);
                     orderItem.setProduct(product);
                     orderItem.setQuantity(orderItemDto.getQuantity());
                     orderItem.setPrice(orderItemDto.getPrice());
-                    OrderItem updated = orderItemRepository.save(orderItem);
+                    OrderItem updated = orderItemRepository.saveAndFlush(orderItem);
+                    revenue.add(updated);
+                    dailyRevenueWriter.apply(revenue);
                     orderItemDto.setId(updated.getId());
+                    orderItemDto.setVersion(updated.getVersion());
                     return orderItemDto;
-                }).orElse(null);
+                }).orElse(null));
     }
 
     @Override
+    @Transactional
     public void deleteOrderItem(Long id) {
-        orderItemRepository.deleteById(id);
+        orderItemRepository.findById(id).ifPresent(orderItem -> {
+            dailyRevenueWriter.subtract(List.of(orderItem));
+            orderItemRepository.delete(orderItem);
+        });
+    }
+
+    // Writes one JDBC batch and detaches it, keeping the persistence context small for large requests
+    private void flushBatch(List<OrderItem> batch, List<OrderItemDto> batchDtos) {
+        orderItemRepository.saveAll(batch);
+        entityManager.flush();
+        entityManager.clear();
+        for (int i = 0; i < batch.size(); i++) {
+            batchDtos.get(i).setId(batch.get(i).getId());
+            batchDtos.get(i).setVersion(batch.get(i).getVersion());
+        }
+        batch.clear();
+    }
+
+    private OrderItemDto toDto(OrderItemView item) {
+        return OrderItemDto.builder()
+                .id(item.getId())
+                .orderId(item.getOrderId())
+                .productId(item.getProductId())
+                .quantity(item.getQuantity())
+                .price(item.getPrice())
+                .version(item.getVersion())
+                .build();
+    }
+
+    private static Set<Long> collectIds(Collection<OrderItemDto> orderItemDtos, Function<OrderItemDto, Long> idGetter) {
+        return orderItemDtos.stream()
+                .map(idGetter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static void requireAllFound(String type, Set<Long> requested, Set<Long> found) {
+        if (found.size() < requested.size()) {
+            Set<Long> missing = new HashSet<>(requested);
+            missing.removeAll(found);
+            throw new EntityNotFoundException(type + " not found with ids: " + missing);
+        }
     }
 }
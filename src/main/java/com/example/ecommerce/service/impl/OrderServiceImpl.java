@@ -1,24 +1,55 @@
 package com.example.ecommerce.service.impl;
 
+import com.example.ecommerce.dto.CheckoutRequestDto;
 import com.example.ecommerce.dto.OrderDto;
 import com.example.ecommerce.dto.OrderItemDto;
 import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.entity.User;
+import com.example.ecommerce.exception.EntityNotFoundException;
+import com.example.ecommerce.outbox.OrderEvent;
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import com.example.ecommerce.repository.OrderOutboxRepository;
 import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
 import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.repository.projection.OrderItemView;
+import com.example.ecommerce.repository.projection.OrderSummaryView;
+import com.example.ecommerce.service.InventoryService;
+import com.example.ecommerce.util.OptimisticRetry;
 import com.example.ecommerce.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
+    static final String DEFAULT_CHECKOUT_STATUS = "PLACED";
+    // A cancelled order's units are back on the shelf
+    static final String CANCELLED_STATUS = "CANCELLED";
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final DailyRevenueWriter dailyRevenueWriter;
+    private final OrderOutboxRepository outboxRepository;
+    private final InventoryService inventoryService;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
+    @Transactional
     public OrderDto createOrder(OrderDto orderDto) {
         User user = userRepository.findById(orderDto.getUserId()).orElse(null);
         Order order = Order.builder()
@@ -27,51 +58,196 @@ public class OrderServiceImpl implements OrderService {
                 .status(orderDto.getStatus())
                 .build();
         Order saved = orderRepository.save(order);
+        outboxRepository.append(OrderEvent.Type.CREATED, saved, null);
         orderDto.setId(saved.getId());
+        orderDto.setVersion(saved.getVersion());
         return orderDto;
     }
 
     @Override
+    @Transactional
+    public OrderDto checkout(CheckoutRequestDto request) {
+        if (request.getOrderItems() == null || request.getOrderItems().isEmpty()) {
+            throw new IllegalArgumentException("An order must contain at least one item");
+        }
+        User user = request.getUserId() != null
+                ? userRepository.findById(request.getUserId())
+                    .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + request.getUserId()))
+                : null;
+
+        // Lines for the same product are merged into one, so the order has one item per product
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemDto itemDto : request.getOrderItems()) {
+            if (itemDto.getProductId() == null) {
+                throw new IllegalArgumentException("Every order item needs a productId");
+            }
+            if (itemDto.getQuantity() == null || itemDto.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product " + itemDto.getProductId());
+            }
+            quantities.merge(itemDto.getProductId(), itemDto.getQuantity(), Integer::sum);
+        }
+
+        // Snapshot every product price with a single lookup
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() < quantities.size()) {
+            Set<Long> missing = new LinkedHashSet<>(quantities.keySet());
+            missing.removeAll(products.keySet());
+            throw new EntityNotFoundException("Product not found with ids: " + missing);
+        }
+
+        Order order = Order.builder()
+                .user(user)
+                .orderDate(request.getOrderDate() != null ? request.getOrderDate() : LocalDateTime.now())
+                .status(request.getStatus() != null ? request.getStatus() : DEFAULT_CHECKOUT_STATUS)
+                .orderItems(new LinkedHashSet<>())
+                .build();
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            order.getOrderItems().add(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(quantity)
+                    .price(product.getPrice())
+                    .build());
+        });
+        // Held until this transaction ends; a rollback puts the units back
+        inventoryService.reserveForCheckout(quantities);
+        // Items cascade from the order and are flushed as one JDBC batch on commit
+        Order saved = orderRepository.saveAndFlush(order);
+        dailyRevenueWriter.add(saved.getOrderItems());
+        outboxRepository.append(OrderEvent.Type.CREATED, saved, null);
+
+        Set<OrderItemDto> items = new LinkedHashSet<>();
+        for (OrderItem item : saved.getOrderItems()) {
+            items.add(OrderItemDto.builder()
+                    .id(item.getId())
+                    .orderId(saved.getId())
+                    .productId(item.getProduct().getId())
+                    .quantity(item.getQuantity())
+                    .price(item.getPrice())
+                    .version(item.getVersion())
+                    .build());
+        }
+        return OrderDto.builder()
+                .id(saved.getId())
+                .version(saved.getVersion())
+                .userId(user != null ? user.getId() : null)
+                .orderDate(saved.getOrderDate())
+                .status(saved.getStatus())
+                .orderItems(items)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public OrderDto getOrderById(Long id) {
-        return orderRepository.findById(id)
-                .map(order -> OrderDto.builder()
-                        .id(order.getId())
-                        .userId(order.getUser() != null ? order.getUser().getId() : null)
-                        .orderDate(order.getOrderDate())
-                        .status(order.getStatus())
-                        .build())
+        return orderRepository.findSummaryById(id)
+                .map(order -> toDto(order, groupItemsByOrder(orderRepository.findItemViewsByOrderIds(List.of(id)))))
                 .orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(order -> OrderDto.builder()
-                        .id(order.getId())
-                        .userId(order.getUser() != null ? order.getUser().getId() : null)
-                        .orderDate(order.getOrderDate())
-                        .status(order.getStatus())
-                        .build())
+        List<OrderSummaryView> orders = orderRepository.findAllSummaries();
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Set<OrderItemDto>> itemsByOrder = groupItemsByOrder(orderRepository.findAllItemViews());
+        return orders.stream()
+                .map(order -> toDto(order, itemsByOrder))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public OrderDto updateOrder(Long id, OrderDto orderDto) {
-        return orderRepository.findById(id)
+    public OrderDto updateOrder(Long id, OrderDto orderDto, Set<Long> expectedVersions) {
+        return optimisticRetry.update(expectedVersions, () -> orderRepository.findById(id)
                 .map(order -> {
+                    OptimisticRetry.requireVersion(expectedVersions, order.getVersion(), "Order " + id);
                     User user = userRepository.findById(orderDto.getUserId()).orElse(null);
+                    String previousStatus = order.getStatus();
+                    boolean wasCancelled = CANCELLED_STATUS.equals(previousStatus);
+                    boolean cancelled = CANCELLED_STATUS.equals(orderDto.getStatus());
+                    // Cancelled orders hold no stock and earn no revenue. Revenue is taken out under the day it was
+                    // counted on, so before the order date changes.
+                    if (cancelled && !wasCancelled && order.getOrderItems() != null) {
+                        dailyRevenueWriter.subtract(order.getOrderItems());
+                    }
                     order.setUser(user);
                     order.setOrderDate(orderDto.getOrderDate());
                     order.setStatus(orderDto.getStatus());
-                    Order updated = orderRepository.save(order);
+                    if (wasCancelled != cancelled) {
+                        if (wasCancelled) {
+                            inventoryService.reserveForCheckout(quantities(order));
+                            if (order.getOrderItems() != null) {
+                                dailyRevenueWriter.add(order.getOrderItems());
+                            }
+                        } else {
+                            inventoryService.returnToStock(quantities(order));
+                        }
+                    }
+                    Order updated = orderRepository.saveAndFlush(order);
+                    if (!Objects.equals(previousStatus, updated.getStatus())) {
+                        outboxRepository.append(OrderEvent.Type.STATUS_CHANGED, updated, previousStatus);
+                    }
                     orderDto.setId(updated.getId());
+                    orderDto.setVersion(updated.getVersion());
                     return orderDto;
-                }).orElse(null);
+                }).orElse(null));
     }
 
     @Override
+    @Transactional
     public void deleteOrder(Long id) {
+        // Items are removed by cascade, so take them out of the revenue aggregate and back into stock first; a
+        // cancelled order already gave both back
+        orderRepository.findById(id).ifPresent(order -> {
+            if (order.getOrderItems() != null && !CANCELLED_STATUS.equals(order.getStatus())) {
+                dailyRevenueWriter.subtract(order.getOrderItems());
+                inventoryService.returnToStock(quantities(order));
+            }
+            outboxRepository.append(OrderEvent.Type.DELETED, order, null);
+        });
         orderRepository.deleteById(id);
     }
-}
 
+    private static Map<Long, Integer> quantities(Order order) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                if (item.getProduct() != null && item.getQuantity() != null) {
+                    quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        return quantities;
+    }
+
+    private Map<Long, Set<OrderItemDto>> groupItemsByOrder(List<OrderItemView> items) {
+        Map<Long, Set<OrderItemDto>> itemsByOrder = new HashMap<>();
+        for (OrderItemView item : items) {
+            itemsByOrder.computeIfAbsent(item.getOrderId(), orderId -> new LinkedHashSet<>())
+                    .add(OrderItemDto.builder()
+                            .id(item.getId())
+                            .orderId(item.getOrderId())
+                            .productId(item.getProductId())
+                            .quantity(item.getQuantity())
+                            .price(item.getPrice())
+                            .version(item.getVersion())
+                            .build());
+        }
+        return itemsByOrder;
+    }
+
+    private OrderDto toDto(OrderSummaryView order, Map<Long, Set<OrderItemDto>> itemsByOrder) {
+        return OrderDto.builder()
+                .id(order.getId())
+                .userId(order.getUserId())
+                .orderDate(order.getOrderDate())
+                .status(order.getStatus())
+                .version(order.getVersion())
+                .orderItems(itemsByOrder.getOrDefault(order.getId(), new LinkedHashSet<>()))
+                .build();
+    }
+}
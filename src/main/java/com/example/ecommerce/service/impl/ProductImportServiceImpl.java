@@ -0,0 +1,96 @@
+package com.example.ecommerce.service.impl;
+
+import com.example.ecommerce.batch.ImportThroughputListener;
+import com.example.ecommerce.batch.ImportThroughputListener.Counter;
+import com.example.ecommerce.batch.ProductImportJobConfig;
+import com.example.ecommerce.dto.ImportStatusDto;
+import com.example.ecommerce.exception.EntityNotFoundException;
+import com.example.ecommerce.service.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+    private final JobLauncher jobLauncher;
+    private final JobOperator jobOperator;
+    private final JobExplorer jobExplorer;
+    private final Job productImportJob;
+
+    @Value("${catalog.import.directory:import}")
+    private String importDirectory;
+
+    @Override
+    public ImportStatusDto startImport(String pattern) throws JobExecutionException {
+        String input = resolveInput(pattern);
+        JobParameters parameters = new JobParametersBuilder()
+                .addString(ProductImportJobConfig.INPUT_PARAMETER, input)
+                // Lets the same feed file be imported again on a later run; restarts reuse the original parameters
+                .addLong("requestedAt", System.currentTimeMillis())
+                .toJobParameters();
+        return toDto(jobLauncher.run(productImportJob, parameters));
+    }
+
+    @Override
+    public ImportStatusDto getImportStatus(Long executionId) {
+        JobExecution execution = jobExplorer.getJobExecution(executionId);
+        if (execution == null || !ProductImportJobConfig.JOB_NAME.equals(execution.getJobInstance().getJobName())) {
+            throw new EntityNotFoundException("Import not found with id: " + executionId);
+        }
+        return toDto(execution);
+    }
+
+    @Override
+    public ImportStatusDto restartImport(Long executionId) throws JobExecutionException {
+        getImportStatus(executionId);
+        return getImportStatus(jobOperator.restart(executionId));
+    }
+
+    // Patterns are resolved inside the import directory only, e.g. "supplier-*.csv"
+    private String resolveInput(String pattern) {
+        if (pattern == null || pattern.isBlank() || pattern.contains("..") || pattern.contains(":")
+                || pattern.startsWith("/") || pattern.startsWith("\\")) {
+            throw new IllegalArgumentException("Import pattern must be a file name pattern inside the import directory");
+        }
+        Path directory = Path.of(importDirectory).toAbsolutePath().normalize();
+        String input = "file:" + directory + "/" + pattern;
+        try {
+            if (new PathMatchingResourcePatternResolver().getResources(input).length == 0) {
+                throw new IllegalArgumentException("No import files match " + pattern);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return input;
+    }
+
+    private ImportStatusDto toDto(JobExecution execution) {
+        return ImportStatusDto.builder()
+                .executionId(execution.getId())
+                .input(execution.getJobParameters().getString(ProductImportJobConfig.INPUT_PARAMETER))
+                .status(execution.getStatus().name())
+                .exitCode(execution.getExitStatus().getExitCode())
+                .startTime(execution.getStartTime())
+                .endTime(execution.getEndTime())
+                .readCount(ImportThroughputListener.sum(execution, Counter.READ))
+                .writeCount(ImportThroughputListener.sum(execution, Counter.WRITE))
+                .filterCount(ImportThroughputListener.sum(execution, Counter.FILTER))
+                .skipCount(ImportThroughputListener.sum(execution, Counter.SKIP))
+                .rowsPerSecond(ImportThroughputListener.rowsPerSecond(execution))
+                .build();
+    }
+}
@@ -1,21 +1,46 @@
 package com.example.ecommerce.service.impl;
 
+import com.example.ecommerce.catalog.CatalogVersion;
+import com.example.ecommerce.config.CacheConfig;
+import com.example.ecommerce.datasource.PrimaryReads;
 import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.ProductPageDto;
+import com.example.ecommerce.dto.ProductSearchResultDto;
 import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.entity.Category;
 import com.example.ecommerce.repository.ProductRepository;
 import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.search.ProductSearchIndex;
 import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.util.OptimisticRetry;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductServiceImpl.class);
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final OptimisticRetry optimisticRetry;
+    private final CatalogVersion catalogVersion;
 
     @Override
     public ProductDto createProduct(ProductDto productDto) {
@@ -28,53 +53,103 @@ public class ProductServiceImpl implements ProductService {
                 .build();
         Product saved = productRepository.save(product);
         productDto.setId(saved.getId());
+        productDto.setVersion(saved.getVersion());
+        productSearchIndex.index(productDto);
+        catalogVersion.changed();
         return productDto;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCT, key = "#id", unless = "#result == null")
     public ProductDto getProductById(Long id) {
-        return productRepository.findById(id)
-                .map(product -> ProductDto.builder()
-                        .id(product.getId())
-                        .name(product.getName())
-                        .price(product.getPrice())
-                        .description(product.getDescription())
-                        .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
-                        .build())
-                .orElse(null);
+        return productRepository.findDtoById(id).orElse(null);
     }
 
+    // Tagged with the catalog version and snapshotted, so it is read from the primary like getAllCategories
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(product -> ProductDto.builder()
-                        .id(product.getId())
-                        .name(product.getName())
-                        .price(product.getPrice())
-                        .description(product.getDescription())
-                        .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
-                        .build())
-                .collect(Collectors.toList());
+        return PrimaryReads.call(productRepository::findAllAsDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPageDto getProductsPage(Long afterId, Long categoryId, int size) {
+        Limit limit = Limit.of(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        long after = afterId != null ? afterId : 0L;
+        List<ProductDto> items = categoryId != null
+                ? productRepository.findPageByCategoryAfter(categoryId, after, limit)
+                : productRepository.findPageAfter(after, limit);
+        Long nextAfterId = items.size() == limit.max() ? items.get(items.size() - 1).getId() : null;
+        return ProductPageDto.builder()
+                .items(items)
+                .nextAfterId(nextAfterId)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<ProductDto> consumer) {
+        // DTO projection keeps rows out of the persistence context, so memory stays flat
+        try (Stream<ProductDto> products = productRepository.streamAllAsDto()) {
+            products.forEach(consumer);
+        }
     }
 
     @Override
-    public ProductDto updateProduct(Long id, ProductDto productDto) {
-        return productRepository.findById(id)
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT, key = "#id")
+    public ProductDto updateProduct(Long id, ProductDto productDto, Set<Long> expectedVersions) {
+        ProductDto updated = optimisticRetry.update(expectedVersions, () -> productRepository.findById(id)
                 .map(product -> {
+                    OptimisticRetry.requireVersion(expectedVersions, product.getVersion(), "Product " + id);
                     product.setName(productDto.getName());
                     product.setPrice(productDto.getPrice());
                     product.setDescription(productDto.getDescription());
                     Category category = categoryRepository.findById(productDto.getCategoryId()).orElse(null);
                     product.setCategory(category);
-                    Product updated = productRepository.save(product);
-                    productDto.setId(updated.getId());
+                    Product saved = productRepository.saveAndFlush(product);
+                    productDto.setId(saved.getId());
+                    productDto.setVersion(saved.getVersion());
                     return productDto;
-                }).orElse(null);
+                }).orElse(null));
+        // Only indexed once the change is committed
+        if (updated != null) {
+            productSearchIndex.index(updated);
+            catalogVersion.changed();
+        }
+        return updated;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT, key = "#id")
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        productSearchIndex.remove(id);
+        catalogVersion.changed();
+    }
+
+    @Override
+    public List<ProductSearchResultDto> searchProducts(String query, int limit) {
+        return productSearchIndex.search(query, Math.min(limit, MAX_SEARCH_RESULTS));
+    }
+
+    @Override
+    public List<String> autocompleteProducts(String prefix, int limit) {
+        return productSearchIndex.autocomplete(prefix, Math.min(limit, MAX_SEARCH_RESULTS));
+    }
+
+    // Also run after bulk imports, which write products without going through this service, hence the catalog bump
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildSearchIndex() {
+        long start = System.nanoTime();
+        try (Stream<ProductDto> products = productRepository.streamAllAsDto()) {
+            productSearchIndex.rebuild(products);
+        }
+        catalogVersion.changed();
+        log.info("Indexed {} products for search in {} ms", productSearchIndex.size(), (System.nanoTime() - start) / 1_000_000);
     }
 }
 
@@ -0,0 +1,98 @@
+package com.example.ecommerce.service.impl;
+
+import com.example.ecommerce.batch.RevenueBackfillJobConfig;
+import com.example.ecommerce.dto.DailyRevenueDto;
+import com.example.ecommerce.dto.JobStatusDto;
+import com.example.ecommerce.exception.EntityNotFoundException;
+import com.example.ecommerce.repository.DailyProductRevenueRepository;
+import com.example.ecommerce.repository.projection.DailyRevenueView;
+import com.example.ecommerce.service.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ReportServiceImpl implements ReportService {
+    // Longest window a single revenue series may span; the default is the last 30 days
+    static final int MAX_DAYS = 366;
+
+    private final DailyProductRevenueRepository dailyProductRevenueRepository;
+    private final JobLauncher jobLauncher;
+    private final JobExplorer jobExplorer;
+    private final Job revenueBackfillJob;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyRevenueDto> getProductDailyRevenue(Long productId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = checkWindow(from, end);
+        return toDtos(dailyProductRevenueRepository.findProductDays(productId, start, end));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyRevenueDto> getCategoryDailyRevenue(Long categoryId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = checkWindow(from, end);
+        return toDtos(dailyProductRevenueRepository.sumCategoryDays(categoryId, start, end));
+    }
+
+    @Override
+    public JobStatusDto startRevenueBackfill() throws JobExecutionException {
+        return toDto(jobLauncher.run(revenueBackfillJob, new JobParametersBuilder()
+                .addLong("requestedAt", System.currentTimeMillis())
+                .toJobParameters()));
+    }
+
+    @Override
+    public JobStatusDto getRevenueBackfillStatus(Long executionId) {
+        JobExecution execution = jobExplorer.getJobExecution(executionId);
+        if (execution == null || !RevenueBackfillJobConfig.JOB_NAME.equals(execution.getJobInstance().getJobName())) {
+            throw new EntityNotFoundException("Revenue backfill not found with id: " + executionId);
+        }
+        return toDto(execution);
+    }
+
+    private static LocalDate checkWindow(LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : to.minusDays(30);
+        if (start.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (start.plusDays(MAX_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Revenue window is limited to " + MAX_DAYS + " days");
+        }
+        return start;
+    }
+
+    private static List<DailyRevenueDto> toDtos(List<DailyRevenueView> views) {
+        return views.stream()
+                .map(view -> DailyRevenueDto.builder()
+                        .day(view.getDay())
+                        .revenue(view.getRevenue())
+                        .units(view.getUnits())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static JobStatusDto toDto(JobExecution execution) {
+        return JobStatusDto.builder()
+                .executionId(execution.getId())
+                .jobName(execution.getJobInstance().getJobName())
+                .status(execution.getStatus().name())
+                .exitCode(execution.getExitStatus().getExitCode())
+                .startTime(execution.getStartTime())
+                .endTime(execution.getEndTime())
+                .build();
+    }
+}
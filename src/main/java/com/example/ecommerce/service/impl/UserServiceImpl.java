@@ -4,22 +4,28 @@ import com.example.ecommerce.dto.UserDto;
 import com.example.ecommerce.dto.UserRegistrationDto;
 import com.example.ecommerce.dto.UserUpdateDto;
 import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserRole;
 import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.repository.projection.UserRoleRowView;
 import com.example.ecommerce.service.UserService;
+import com.example.ecommerce.util.OptimisticRetry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
     @Transactional
@@ -38,39 +44,34 @@ public class UserServiceImpl implements UserService {
                 .username(saved.getUsername())
                 .email(saved.getEmail())
                 .roles(saved.getRoles())
+                .version(saved.getVersion())
                 .build();
 
         return userDtoResponse;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
-        return userRepository.findById(id)
-                .map(user -> UserDto.builder()
-                        .id(user.getId())
-                        .username(user.getUsername())
-                        .email(user.getEmail())
-                        .roles(user.getRoles())
-                        .build())
-                .orElse(null);
+        List<UserDto> users = toDtos(userRepository.findRoleRowsById(id));
+        return users.isEmpty() ? null : users.get(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(user -> UserDto.builder()
-                        .id(user.getId())
-                        .username(user.getUsername())
-                        .email(user.getEmail())
-                        .roles(user.getRoles())
-                        .build())
-                .collect(Collectors.toList());
+        return toDtos(userRepository.findAllRoleRows());
     }
 
     @Override
-    public UserDto updateUser(Long id, UserUpdateDto userUpdateDto) {
+    public UserDto updateUser(Long id, UserUpdateDto userUpdateDto, Set<Long> expectedVersions) {
+        return optimisticRetry.update(expectedVersions, () -> applyUpdate(id, userUpdateDto, expectedVersions));
+    }
+
+    private UserDto applyUpdate(Long id, UserUpdateDto userUpdateDto, Set<Long> expectedVersions) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new com.example.ecommerce.exception.EntityNotFoundException("User not found with id: " + id));
+        OptimisticRetry.requireVersion(expectedVersions, user.getVersion(), "User " + id);
         if (userUpdateDto.getUsername() != null) {
             user.setUsername(userUpdateDto.getUsername());
         }
@@ -80,12 +81,13 @@ public class UserServiceImpl implements UserService {
         if (userUpdateDto.getRoles() != null && !userUpdateDto.getRoles().isEmpty()) {
             user.setRoles(userUpdateDto.getRoles());
         }
-        User updated = userRepository.save(user);
+        User updated = userRepository.saveAndFlush(user);
         return UserDto.builder()
                 .id(updated.getId())
                 .username(updated.getUsername())
                 .email(updated.getEmail())
                 .roles(updated.getRoles())
+                .version(updated.getVersion())
                 .build();
     }
 
@@ -95,4 +97,26 @@ public class UserServiceImpl implements UserService {
             .orElseThrow(() -> new com.example.ecommerce.exception.EntityNotFoundException("User not found with id: " + id));
         userRepository.deleteById(user.getId());
     }
+
+    // Rows arrive grouped by user, one per role
+    private static List<UserDto> toDtos(List<UserRoleRowView> rows) {
+        List<UserDto> users = new ArrayList<>();
+        UserDto current = null;
+        for (UserRoleRowView row : rows) {
+            if (current == null || !current.getId().equals(row.id())) {
+                current = UserDto.builder()
+                        .id(row.id())
+                        .username(row.username())
+                        .email(row.email())
+                        .version(row.version())
+                        .roles(EnumSet.noneOf(UserRole.class))
+                        .build();
+                users.add(current);
+            }
+            if (row.role() != null) {
+                current.getRoles().add(row.role());
+            }
+        }
+        return users;
+    }
 }
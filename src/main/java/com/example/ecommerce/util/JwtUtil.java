@@ -1,12 +1,16 @@
 package com.example.ecommerce.util;
 
 import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.security.RoleAuthorities;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -21,17 +25,21 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long EXPIRATION_TIME;
 
+    // Decoded once instead of on every sign and parse call; verification on requests goes through JwtVerifier
+    private volatile Key signingKey;
+
     // Generate JWT token
     public String generateToken(String username) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .signWith(SignatureAlgorithm.HS256, signingKey())
                 .compact();
     }
 
-    // Generate JWT token with UserRole enums
+    // Generate JWT token with UserRole enums. "rm" is the RoleAuthorities bitmask the authentication filter
+    // resolves; "roles" stays for extractRoles and anything else reading the names
     public String generateToken(String username, Collection<UserRole> roles) {
         List<String> roleNames = roles.stream()
                 .map(UserRole::name)
@@ -39,9 +47,10 @@ public class JwtUtil {
         return Jwts.builder()
                 .setSubject(username)
                 .claim("roles", roleNames)
+                .claim("rm", RoleAuthorities.mask(roles))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .signWith(SignatureAlgorithm.HS256, signingKey())
                 .compact();
     }
 
@@ -58,7 +67,10 @@ public class JwtUtil {
 
     // Extract UserRole enums from token
     public List<UserRole> extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
+        return extractRoles(extractAllClaims(token));
+    }
+
+    private List<UserRole> extractRoles(Claims claims) {
         Object rolesObj = claims.get("roles");
         if (rolesObj instanceof List<?>) {
             return ((List<?>) rolesObj).stream()
@@ -92,8 +104,18 @@ public class JwtUtil {
 
     private Claims extractAllClaims(String token) {
         return Jwts.parser()
-                .setSigningKey(SECRET_KEY)
+                .setSigningKey(signingKey())
                 .parseClaimsJws(token)
                 .getBody();
     }
+
+    private Key signingKey() {
+        Key key = signingKey;
+        if (key == null) {
+            // jjwt decodes a String key as base64, so this is the same key the String overloads used
+            key = new SecretKeySpec(Base64.getDecoder().decode(SECRET_KEY), SignatureAlgorithm.HS256.getJcaName());
+            signingKey = key;
+        }
+        return key;
+    }
 }
@@ -0,0 +1,75 @@
+package com.example.ecommerce.util;
+
+import com.example.ecommerce.exception.PreconditionFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Runs a read-modify-write in its own transaction, relying on @Version instead of row locks. A caller without an
+// expected version only needs no update to be lost, so a conflict re-runs the work on fresh state, a bounded
+// number of times. With expected versions (If-Match) the client's copy is stale and the conflict is a 412.
+@Slf4j
+@Component
+public class OptimisticRetry {
+    private final TransactionOperations transactionOperations;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(TransactionOperations transactionOperations,
+                           @Value("${concurrency.optimistic.max-attempts:5}") int maxAttempts,
+                           @Value("${concurrency.optimistic.backoff-ms:10}") long backoffMillis) {
+        this.transactionOperations = transactionOperations;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T update(Set<Long> expectedVersions, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (expectedVersions != null) {
+                    throw new PreconditionFailedException("Version " + describe(expectedVersions) + " was modified concurrently");
+                }
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict on attempt {} of {}, retrying", attempt, maxAttempts);
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Called inside the work with the version just read; unless it is one of the expected ones, nothing is written
+    public static void requireVersion(Set<Long> expectedVersions, Long actualVersion, String what) {
+        if (expectedVersions != null && (actualVersion == null || !expectedVersions.contains(actualVersion))) {
+            throw new PreconditionFailedException(what + " is at version " + actualVersion + ", not "
+                    + describe(expectedVersions));
+        }
+    }
+
+    private static String describe(Set<Long> versions) {
+        return versions.size() == 1 ? versions.iterator().next().toString()
+                : versions.stream().map(String::valueOf).collect(Collectors.joining(", ", "any of ", ""));
+    }
+
+    // Exponential with full jitter, so writers that collided don't line up again on the next attempt
+    private void backOff(int attempt) {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong((backoffMillis << Math.min(attempt - 1, 10)) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying an optimistic update", e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.ecommerce.batch;
+
+import com.example.ecommerce.dto.ImportStatusDto;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.ProductImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "catalog.import.chunk-size=2",
+        "catalog.import.skip-limit=1"
+})
+class ProductImportJobTest {
+    @TempDir
+    static Path importDirectory;
+
+    @DynamicPropertySource
+    static void importProperties(DynamicPropertyRegistry registry) {
+        registry.add("catalog.import.directory", importDirectory::toString);
+    }
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category books;
+
+    @BeforeEach
+    void setUp() {
+        books = categoryRepository.save(Category.builder().name("Books").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testImportsCsvAndJsonlFilesInParallel() throws Exception {
+        Files.writeString(importDirectory.resolve("feed-a.csv"), """
+                name,price,description,category
+                Dune,9.99,"Sci-fi, classic",books
+                Emma,4.50,,Books
+                Mystery,abc,bad price,Books
+                Gadget,19.00,unknown category,Gadgets
+                """);
+        Files.writeString(importDirectory.resolve("feed-b.jsonl"), """
+                {"name":"Ulysses","price":12.00,"category":"Books"}
+                {"name":"Notebook","price":2.00}
+                """);
+
+        ImportStatusDto status = await(productImportService.startImport("feed-*"));
+
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(5, status.getReadCount());
+        assertEquals(4, status.getWriteCount());
+        assertEquals(1, status.getFilterCount());
+        assertEquals(1, status.getSkipCount());
+        assertEquals(Set.of("Dune", "Emma", "Ulysses", "Notebook"), productNames());
+        assertTrue(productRepository.findAll().stream()
+                .filter(product -> !product.getName().equals("Notebook"))
+                .allMatch(product -> books.getId().equals(product.getCategory().getId())));
+    }
+
+    // Ten rows over four threads: ranges of three rows, each read by a worker step of its own
+    @Test
+    void testSplitsOneFileAcrossWorkerSteps() throws Exception {
+        Files.writeString(importDirectory.resolve("large.csv"), csv(10, Set.of()));
+
+        ImportStatusDto status = await(productImportService.startImport("large.csv"));
+
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(10, status.getWriteCount());
+        assertEquals(10, productRepository.count());
+        List<Long> readCounts = jobExplorer.getJobExecution(status.getExecutionId()).getStepExecutions().stream()
+                .filter(step -> step.getStepName().startsWith(ProductImportJobConfig.WORKER_STEP + ":"))
+                .map(step -> step.getReadCount())
+                .sorted()
+                .toList();
+        assertEquals(List.of(1L, 3L, 3L, 3L), readCounts);
+    }
+
+    // Sixteen rows in ranges of four; the two bad rows share the second chunk of the second range
+    @Test
+    void testRestartResumesAfterLastCommittedChunk() throws Exception {
+        Path feed = importDirectory.resolve("restart.csv");
+        Files.writeString(feed, csv(16, Set.of(7, 8)));
+        ImportStatusDto failed = await(productImportService.startImport("restart.csv"));
+        assertEquals("FAILED", failed.getStatus());
+        // That chunk hit the skip limit and was rolled back; the other ranges completed
+        assertEquals(14, productRepository.count());
+        assertFalse(productNames().contains("p7") || productNames().contains("p8"));
+
+        Files.writeString(feed, Files.readString(feed).replace("bad", "1"));
+        ImportStatusDto restarted = await(productImportService.restartImport(failed.getExecutionId()));
+
+        assertEquals("COMPLETED", restarted.getStatus());
+        // Only the failed range runs again, from after its last committed chunk
+        assertEquals(2, restarted.getWriteCount());
+        assertEquals(16, productRepository.count());
+        assertEquals(16, productNames().size());
+    }
+
+    private static String csv(int rows, Set<Integer> badRows) {
+        StringBuilder csv = new StringBuilder("name,price,description,category\n");
+        for (int i = 1; i <= rows; i++) {
+            csv.append("p").append(i).append(badRows.contains(i) ? ",bad" : ",1").append(",,Books\n");
+        }
+        return csv.toString();
+    }
+
+    private Set<String> productNames() {
+        return productRepository.findAll().stream().map(product -> product.getName()).collect(Collectors.toSet());
+    }
+
+    private ImportStatusDto await(ImportStatusDto started) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        ImportStatusDto status = started;
+        while (Set.of("STARTING", "STARTED").contains(status.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            status = productImportService.getImportStatus(started.getExecutionId());
+        }
+        return status;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.ecommerce.batch;
+
+import com.example.ecommerce.dto.DailyRevenueDto;
+import com.example.ecommerce.dto.JobStatusDto;
+import com.example.ecommerce.dto.CheckoutRequestDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.OrderItemDto;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.DailyProductRevenueRepository;
+import com.example.ecommerce.repository.OrderItemRepository;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.revenue.DailyRevenueFolder;
+import com.example.ecommerce.service.OrderItemService;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.ReportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Revenue deltas are folded by hand before the aggregate is read
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "revenue.fold.interval-ms=0"})
+class RevenueBackfillJobTest {
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private DailyProductRevenueRepository dailyProductRevenueRepository;
+
+    @Autowired
+    private DailyRevenueFolder dailyRevenueFolder;
+
+    @AfterEach
+    void tearDown() {
+        dailyProductRevenueRepository.deleteAllInBatch();
+        orderItemRepository.deleteAllInBatch();
+        orderRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testIncrementalAggregateMatchesBackfill() throws Exception {
+        Category books = categoryRepository.save(Category.builder().name("Books").build());
+        Product dune = productRepository.save(Product.builder().name("Dune").price(new BigDecimal("10.00")).category(books).build());
+        Product emma = productRepository.save(Product.builder().name("Emma").price(new BigDecimal("4.50")).category(books).build());
+
+        orderService.checkout(CheckoutRequestDto.builder().orderItems(List.of(
+                OrderItemDto.builder().productId(dune.getId()).quantity(2).build(),
+                OrderItemDto.builder().productId(emma.getId()).quantity(1).build())).build());
+        Order yesterday = orderRepository.save(Order.builder().orderDate(LocalDateTime.now().minusDays(1)).status("NEW").build());
+        List<OrderItemDto> added = orderItemService.createOrderItems(List.of(
+                OrderItemDto.builder().orderId(yesterday.getId()).productId(dune.getId()).quantity(3).price(new BigDecimal("9.00")).build(),
+                OrderItemDto.builder().orderId(yesterday.getId()).productId(emma.getId()).quantity(5).price(new BigDecimal("4.00")).build()));
+        orderItemService.updateOrderItem(added.get(0).getId(),
+                OrderItemDto.builder().productId(dune.getId()).quantity(1).price(new BigDecimal("9.00")).build(), null);
+        orderItemService.deleteOrderItem(added.get(1).getId());
+        dailyRevenueFolder.drain();
+
+        List<DailyRevenueDto> category = reportService.getCategoryDailyRevenue(books.getId(), null, null);
+        assertEquals(2, category.size());
+        assertEquals(0, new BigDecimal("9.00").compareTo(category.get(0).getRevenue()));
+        assertEquals(0, new BigDecimal("24.50").compareTo(category.get(1).getRevenue()));
+        assertEquals(3, category.get(1).getUnits());
+        Set<String> incremental = snapshot();
+
+        JobStatusDto status = reportService.startRevenueBackfill();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!Set.of("COMPLETED", "FAILED").contains(status.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            status = reportService.getRevenueBackfillStatus(status.getExecutionId());
+        }
+
+        assertEquals("COMPLETED", status.getStatus());
+        // Zero rows left behind by the deleted item are the only difference the rebuild may drop
+        assertEquals(incremental.stream().filter(row -> !row.endsWith("/0")).collect(Collectors.toSet()), snapshot());
+        assertEquals(List.of(LocalDate.now().minusDays(1), LocalDate.now()),
+                reportService.getProductDailyRevenue(dune.getId(), null, null).stream().map(DailyRevenueDto::getDay).toList());
+    }
+
+    private Set<String> snapshot() {
+        return dailyProductRevenueRepository.findAll().stream()
+                .map(row -> row.getDay() + "/" + row.getProductId() + "/" + row.getCategoryId()
+                        + "/" + row.getRevenue().stripTrailingZeros().toPlainString() + "/" + row.getUnits())
+                .collect(Collectors.toSet());
+    }
+}
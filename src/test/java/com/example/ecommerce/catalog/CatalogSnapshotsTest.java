@@ -0,0 +1,72 @@
+package com.example.ecommerce.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Rebuilds are driven by hand; start() is never called, so no debounce timer runs
+class CatalogSnapshotsTest {
+    private final CatalogVersion catalogVersion = new CatalogVersion(0);
+    private final List<String> categories = new CopyOnWriteArrayList<>(List.of("Books"));
+    private final CatalogSnapshots snapshots = snapshots(0);
+
+    @AfterEach
+    void tearDown() {
+        snapshots.close();
+    }
+
+    private CatalogSnapshots snapshots(long maxStalenessMillis) {
+        return new CatalogSnapshots(catalogVersion, new ObjectMapper(),
+                Map.of(CatalogSnapshots.Listing.CATEGORIES, () -> categories), new SimpleMeterRegistry(), 0,
+                maxStalenessMillis);
+    }
+
+    @Test
+    void testSnapshotHoldsJsonAndGzipOfTheListing() throws Exception {
+        snapshots.rebuild();
+
+        CatalogSnapshots.Snapshot snapshot = snapshots.get(CatalogSnapshots.Listing.CATEGORIES, catalogVersion.current());
+        assertEquals("[\"Books\"]", new String(snapshot.json(), StandardCharsets.UTF_8));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip()))) {
+            assertArrayEquals(snapshot.json(), gzip.readAllBytes());
+        }
+        assertNull(snapshots.get(CatalogSnapshots.Listing.PRODUCTS, catalogVersion.current()));
+    }
+
+    @Test
+    void testSnapshotIsWithheldUntilRebuiltAfterAWrite() {
+        snapshots.rebuild();
+        categories.add("Games");
+        catalogVersion.changed();
+
+        assertNull(snapshots.get(CatalogSnapshots.Listing.CATEGORIES, catalogVersion.current()));
+
+        snapshots.rebuild();
+        CatalogSnapshots.Snapshot snapshot = snapshots.get(CatalogSnapshots.Listing.CATEGORIES, catalogVersion.current());
+        assertEquals("[\"Books\",\"Games\"]", new String(snapshot.json(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSnapshotLeftBehindByAWriteIsServedWithinTheStalenessBound() {
+        try (CatalogSnapshots lagging = snapshots(60_000)) {
+            lagging.rebuild();
+            CatalogVersion.Stamp built = catalogVersion.current();
+            categories.add("Games");
+            catalogVersion.changed();
+
+            CatalogSnapshots.Snapshot snapshot = lagging.get(CatalogSnapshots.Listing.CATEGORIES, catalogVersion.current());
+            assertEquals(built, snapshot.stamp());
+            assertEquals("[\"Books\"]", new String(snapshot.json(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerformanceSettingsValidatorTest {
+
+    @Test
+    void testProdSettingsPass() {
+        PerformanceSettingsValidator validator = new PerformanceSettingsValidator(prodJpaProperties(), List.of(), "fail");
+
+        assertEquals(List.of(), validator.findProblems());
+        assertDoesNotThrow(validator::afterSingletonsInstantiated);
+    }
+
+    @Test
+    void testFailModeRefusesSqlEchoAndOpenInView() {
+        JpaProperties jpaProperties = prodJpaProperties();
+        jpaProperties.setShowSql(true);
+        jpaProperties.setOpenInView(null);
+        PerformanceSettingsValidator validator = new PerformanceSettingsValidator(jpaProperties, List.of(), "fail");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, validator::afterSingletonsInstantiated);
+        assertTrue(e.getMessage().contains("show-sql"));
+        assertTrue(e.getMessage().contains("open-in-view"));
+    }
+
+    @Test
+    void testFlagsUnbatchedWritesAndLeakDetection() {
+        JpaProperties jpaProperties = prodJpaProperties();
+        jpaProperties.getProperties().remove("hibernate.jdbc.batch_size");
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setPoolName("leaky");
+            pool.setLeakDetectionThreshold(2_000);
+            List<String> problems = new PerformanceSettingsValidator(jpaProperties, List.of(pool), "warn").findProblems();
+
+            assertEquals(2, problems.size());
+            assertTrue(problems.get(0).contains("batch_size"));
+            assertTrue(problems.get(1).contains("leaky"));
+        }
+    }
+
+    @Test
+    void testUnparsableBatchSizeIsReportedAsAProblem() {
+        JpaProperties jpaProperties = prodJpaProperties();
+        jpaProperties.getProperties().put("hibernate.jdbc.batch_size", "fifty");
+        PerformanceSettingsValidator validator = new PerformanceSettingsValidator(jpaProperties, List.of(), "fail");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, validator::afterSingletonsInstantiated);
+        assertTrue(e.getMessage().contains("batch_size"));
+    }
+
+    private static JpaProperties prodJpaProperties() {
+        JpaProperties jpaProperties = new JpaProperties();
+        jpaProperties.setShowSql(false);
+        jpaProperties.setOpenInView(false);
+        jpaProperties.getProperties().put("hibernate.jdbc.batch_size", "50");
+        jpaProperties.getProperties().put("hibernate.order_inserts", "true");
+        jpaProperties.getProperties().put("hibernate.order_updates", "true");
+        return jpaProperties;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.catalog.CatalogSnapshots;
+import com.example.ecommerce.catalog.CatalogVersion;
+import com.example.ecommerce.dto.CategoryDto;
+import com.example.ecommerce.security.JwtVerificationCache;
+import com.example.ecommerce.service.CategoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CategoryController.class)
+@Import({SimpleMeterRegistry.class, CatalogVersion.class})
+class CategoryControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @MockitoBean
+    private CategoryService categoryService;
+    @MockitoBean
+    private CatalogSnapshots catalogSnapshots; // Returns no snapshot unless stubbed, so listings are loaded per request
+    @MockitoBean
+    private JwtVerificationCache jwtVerificationCache;
+
+    @Test
+    @WithMockUser
+    void testUnchangedCatalogIsAnsweredWithoutLoadingIt() throws Exception {
+        when(categoryService.getAllCategories()).thenReturn(List.of(CategoryDto.builder().id(1L).name("Books").build()));
+
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Books"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=0, must-revalidate, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        verify(categoryService, times(1)).getAllCategories();
+    }
+
+    @Test
+    @WithMockUser
+    void testWriteChangesTheETag() throws Exception {
+        when(categoryService.getAllCategories()).thenReturn(List.of());
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        catalogVersion.changed();
+
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.etag(catalogVersion.current())));
+    }
+
+    @Test
+    @WithMockUser
+    void testLastModifiedNeverRunsAheadOfTheClock() throws Exception {
+        when(categoryService.getAllCategories()).thenReturn(List.of());
+        for (int i = 0; i < 10; i++) {
+            catalogVersion.changed();
+        }
+
+        long lastModified = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getDateHeader(HttpHeaders.LAST_MODIFIED);
+        assertFalse(Instant.ofEpochMilli(lastModified).isAfter(Instant.now()));
+    }
+
+    @Test
+    @WithMockUser
+    void testCurrentSnapshotIsWrittenWithoutLoadingTheListing() throws Exception {
+        byte[] json = "[{\"id\":1,\"name\":\"Books\"}]".getBytes(StandardCharsets.UTF_8);
+        byte[] gzip = {31, -117, 8, 0};
+        when(catalogSnapshots.get(eq(CatalogSnapshots.Listing.CATEGORIES), any()))
+                .thenReturn(new CatalogSnapshots.Snapshot(catalogVersion.current(), json, gzip));
+        String etag = catalogVersion.etag(catalogVersion.current());
+        String gzipEtag = catalogVersion.etag(catalogVersion.current(), true);
+
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/json"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(json));
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, gzipEtag))
+                .andExpect(content().bytes(gzip));
+        verify(categoryService, never()).getAllCategories();
+    }
+
+    @Test
+    @WithMockUser
+    void testEitherEncodingsTagIsRevalidated() throws Exception {
+        when(catalogSnapshots.get(eq(CatalogSnapshots.Listing.CATEGORIES), any()))
+                .thenReturn(new CatalogSnapshots.Snapshot(catalogVersion.current(), new byte[0], new byte[0]));
+        String etag = catalogVersion.etag(catalogVersion.current());
+        String gzipEtag = catalogVersion.etag(catalogVersion.current(), true);
+
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + gzipEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzipEtag))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    @WithMockUser
+    void testLaggingSnapshotIsServedUnderItsOwnTagButNeverOverANewerOne() throws Exception {
+        CatalogVersion.Stamp built = catalogVersion.current();
+        byte[] json = "[]".getBytes(StandardCharsets.UTF_8);
+        when(catalogSnapshots.get(eq(CatalogSnapshots.Listing.CATEGORIES), any()))
+                .thenReturn(new CatalogSnapshots.Snapshot(built, json, new byte[0]));
+        catalogVersion.changed();
+
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.etag(built)))
+                .andExpect(content().bytes(json));
+        String current = catalogVersion.etag(catalogVersion.current());
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, current))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, current));
+    }
+}
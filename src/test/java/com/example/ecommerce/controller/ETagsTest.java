@@ -0,0 +1,28 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void testIfMatchListsEveryStrongVersion() {
+        assertNull(ETags.expectedVersions(null));
+        assertNull(ETags.expectedVersions(" * "));
+        assertEquals(Set.of(3L), ETags.expectedVersions("\"3\""));
+        assertEquals(Set.of(3L, 4L), ETags.expectedVersions("\"3\", \"4\""));
+        assertEquals(Set.of(4L), ETags.expectedVersions("W/\"3\",\"4\", \"a,b\""));
+    }
+
+    @Test
+    void testWeakOrForeignTagsAloneCanNeverMatch() {
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersions("W/\"3\""));
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersions("W/\"3\", W/\"4\""));
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersions("\"abc\""));
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersions("\"3"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.CheckoutRequestDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.security.JwtVerificationCache;
+import com.example.ecommerce.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OrderController.class)
+@Import(SimpleMeterRegistry.class)
+class OrderControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private OrderService orderService;
+    @MockitoBean
+    private JwtVerificationCache jwtVerificationCache;
+
+    @Test
+    @WithMockUser
+    void testIdenticalCheckoutLinesReachTheServiceAsTwoLines() throws Exception {
+        when(orderService.checkout(any())).thenReturn(OrderDto.builder().id(1L).build());
+        String requestBody = "{\"orderItems\": [" +
+                "{\"productId\": 1, \"quantity\": 2}," +
+                "{\"productId\": 1, \"quantity\": 2}]}";
+
+        mockMvc.perform(post("/api/orders/checkout")
+                .with(csrf())
+                .contentType("application/json")
+                .content(requestBody))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<CheckoutRequestDto> request = ArgumentCaptor.forClass(CheckoutRequestDto.class);
+        verify(orderService).checkout(request.capture());
+        assertEquals(2, request.getValue().getOrderItems().size());
+        assertEquals(4, request.getValue().getOrderItems().stream().mapToInt(item -> item.getQuantity()).sum());
+    }
+}
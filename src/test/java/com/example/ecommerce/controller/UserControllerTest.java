@@ -1,15 +1,19 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.security.JwtVerificationCache;
 import com.example.ecommerce.service.UserService;
 import com.example.ecommerce.dto.UserDto;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -24,11 +28,14 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.util.List;
 
 @WebMvcTest(UserController.class) // Loads only web layer
+@Import(SimpleMeterRegistry.class) // Required by RequestMetricsFilter; the slice leaves out metrics auto-configuration
 class UserControllerTest {
     @Autowired
     private MockMvc mockMvc;
     @MockBean
     private UserService userService;
+    @MockBean
+    private JwtVerificationCache jwtVerificationCache; // Required by JwtAuthenticationFilter, which the web slice picks up
 
     @Test
     @WithMockUser // Simulate authenticated user to avoid 401
@@ -89,7 +96,7 @@ class UserControllerTest {
     @WithMockUser(roles = "ADMIN")
     void testUpdateUser() throws Exception {
         UserDto userDto = UserDto.builder().id(1L).username("updateduser").email("updated@example.com").build();
-        when(userService.updateUser(eq(1L), any())).thenReturn(userDto);
+        when(userService.updateUser(eq(1L), any(), isNull())).thenReturn(userDto);
         String requestBody = "{" +
                 "\"username\": \"updateduser\"," +
                 "\"email\": \"updated@example.com\"}";
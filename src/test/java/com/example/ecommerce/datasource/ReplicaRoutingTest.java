@@ -0,0 +1,100 @@
+package com.example.ecommerce.datasource;
+
+import com.example.ecommerce.catalog.CatalogVersion;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.service.CategoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two H2 databases from the replica profile; syncing and heartbeats are driven by hand instead of on timers
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.replica.jdbc-url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1",
+        "datasource.routing.heartbeat-ms=0",
+        "datasource.routing.local-sync-ms=0",
+        "datasource.routing.max-lag-ms=60000"
+})
+@ActiveProfiles("replica")
+class ReplicaRoutingTest {
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private LocalReplicaSync localReplicaSync;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        replica = new JdbcTemplate(replicaDataSource);
+        categoryRepository.save(Category.builder().name("Books").build());
+        replicaLagMonitor.beat();
+        localReplicaSync.sync();
+        replicaLagMonitor.check();
+        // Only the replica sees this rename, which tells the two databases apart below
+        replica.update("UPDATE categories SET name = 'Books (replica)' WHERE name = 'Books'");
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertEquals("Books (replica)", categoryRepository.findAll().get(0).getName());
+
+        String inReadWriteTransaction = transactionTemplate.execute(status -> categoryRepository.findAll().get(0).getName());
+        assertEquals("Books", inReadWriteTransaction);
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() {
+        replica.update("UPDATE replica_heartbeat SET beat_at = ?", System.currentTimeMillis() - 120_000);
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        assertTrue(replicaLagMonitor.getLagMillis() >= 120_000);
+        assertEquals("Books", categoryRepository.findAll().get(0).getName());
+    }
+
+    // The listing is tagged and cached under the catalog version, so it must not come from the replica
+    @Test
+    void testCatalogListingIsReadFromThePrimary() {
+        catalogVersion.changed();
+
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertEquals("Books", categoryService.getAllCategories().get(0).getName());
+        assertEquals("Books (replica)", categoryRepository.findAll().get(0).getName());
+    }
+}
@@ -73,7 +73,7 @@ class UserEntityTest {
 
     @Test
     void testAllArgsConstructor() {
-        User user = new User(6L, "allargs", "pass", "all@args.com", Set.of(UserRole.SUPPORT), null);
+        User user = new User(6L, "allargs", "pass", "all@args.com", Set.of(UserRole.SUPPORT), null, null);
         assertEquals(6L, user.getId());
         assertEquals("allargs", user.getUsername());
         assertEquals("pass", user.getPassword());
@@ -0,0 +1,170 @@
+package com.example.ecommerce.inventory;
+
+import com.example.ecommerce.config.SchedulingConfig;
+import com.example.ecommerce.dto.CheckoutRequestDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.OrderItemDto;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.exception.InsufficientStockException;
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import com.example.ecommerce.repository.OrderOutboxRepository;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.ProductStockRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.service.InventoryService;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.impl.InventoryServiceImpl;
+import com.example.ecommerce.service.impl.OrderServiceImpl;
+import com.example.ecommerce.util.OptimisticRetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not in a test transaction: each checkout has to commit its stock claim for the next one to see it. Small
+// allocations, so both nodes of the first test get to claim stock more than once.
+@DataJpaTest(properties = {"inventory.sweep-ms=0", "inventory.allocation-size=" + CheckoutStockTest.ALLOCATION})
+@Import({OrderServiceImpl.class, DailyRevenueWriter.class, OrderOutboxRepository.class, InventoryServiceImpl.class,
+        InventoryConfig.class, ProductStockRepository.class, OptimisticRetry.class, SchedulingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CheckoutStockTest {
+    private static final int THREADS = 16;
+    private static final int STOCK = 20;
+    static final int ALLOCATION = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductStockRepository stockRepository;
+
+    @Autowired
+    private DailyRevenueWriter dailyRevenueWriter;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("daily_revenue_delta", "order_outbox", "order_items", "orders", "product_stock",
+                "products", "user_roles", "users")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    // Half the buyers go through a second node with a ledger of its own; between them they sell exactly the stock
+    @Test
+    void testCheckoutsOnTwoNodesNeverOversell() throws Exception {
+        Product product = productRepository.save(Product.builder().name("lamp").price(BigDecimal.TEN).build());
+        inventoryService.adjustStock(product.getId(), STOCK);
+        StockLedger otherLedger = new StockLedger(stockRepository, 60_000, ALLOCATION, 60_000);
+        OrderService otherNode = new OrderServiceImpl(orderRepository, userRepository, productRepository,
+                dailyRevenueWriter, outboxRepository, new InventoryServiceImpl(otherLedger, productRepository),
+                optimisticRetry);
+
+        int sold = 0;
+        int refused = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<OrderDto>> checkouts = new ArrayList<>();
+            for (int i = 0; i < 2 * STOCK; i++) {
+                boolean here = i % 2 == 0;
+                checkouts.add(executor.submit(() -> {
+                    start.await();
+                    CheckoutRequestDto request = CheckoutRequestDto.builder()
+                            .orderItems(List.of(OrderItemDto.builder().productId(product.getId()).quantity(1).build()))
+                            .build();
+                    return here ? orderService.checkout(request)
+                            : transactionOperations.execute(status -> otherNode.checkout(request));
+                }));
+            }
+            start.countDown();
+            for (Future<OrderDto> checkout : checkouts) {
+                try {
+                    assertNotNull(checkout.get(60, TimeUnit.SECONDS).getId());
+                    sold++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(InsufficientStockException.class, e.getCause());
+                    refused++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            otherLedger.close();
+        }
+
+        assertEquals(STOCK, sold);
+        assertEquals(STOCK, refused);
+        assertEquals(STOCK, orderRepository.count());
+        // The other node handed back whatever it had left on close, and this one has nothing left either
+        assertEquals(0L, inventoryService.getStock(product.getId()).getAvailable());
+    }
+
+    @Test
+    void testCancellingOrDeletingAnOrderReturnsItsStock() {
+        User user = userRepository.save(User.builder().username("buyer").password("password")
+                .email("buyer@testing.com").roles(Set.of(UserRole.CUSTOMER)).build());
+        Product product = productRepository.save(Product.builder().name("desk").price(BigDecimal.TEN).build());
+        inventoryService.adjustStock(product.getId(), 5);
+        OrderDto order = orderService.checkout(CheckoutRequestDto.builder().userId(user.getId())
+                .orderItems(List.of(OrderItemDto.builder().productId(product.getId()).quantity(3).build()))
+                .build());
+        assertEquals(2L, inventoryService.getStock(product.getId()).getAvailable());
+
+        orderService.updateOrder(order.getId(), status(order, "CANCELLED"), null);
+        assertEquals(5L, inventoryService.getStock(product.getId()).getAvailable());
+
+        orderService.updateOrder(order.getId(), status(order, "PLACED"), null);
+        assertEquals(2L, inventoryService.getStock(product.getId()).getAvailable());
+
+        orderService.deleteOrder(order.getId());
+        assertEquals(5L, inventoryService.getStock(product.getId()).getAvailable());
+    }
+
+    private static OrderDto status(OrderDto order, String status) {
+        return OrderDto.builder().userId(order.getUserId()).orderDate(order.getOrderDate()).status(status).build();
+    }
+}
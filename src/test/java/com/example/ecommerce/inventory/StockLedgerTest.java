@@ -0,0 +1,194 @@
+package com.example.ecommerce.inventory;
+
+import com.example.ecommerce.exception.InsufficientStockException;
+import com.example.ecommerce.repository.ProductStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StockLedgerTest {
+    private static final long HOT_SKU = 1L;
+    private static final long STOCK = 1_000;
+
+    private static final long ALLOCATION = 50;
+
+    private final Map<Long, AtomicLong> rows = new ConcurrentHashMap<>();
+    private final AtomicInteger allocations = new AtomicInteger();
+    private ProductStockRepository stockRepository;
+
+    // product_stock as a map: take is the same conditional decrement the UPDATE does, allocate takes what is left
+    // up to what was asked for, and every allocate stands for a checkout locking the row
+    @BeforeEach
+    void setUp() {
+        rows.put(HOT_SKU, new AtomicLong(STOCK));
+        stockRepository = mock(ProductStockRepository.class);
+        when(stockRepository.findQuantity(anyLong())).thenAnswer(invocation -> {
+            AtomicLong row = rows.get(invocation.<Long>getArgument(0));
+            return row != null ? row.get() : null;
+        });
+        when(stockRepository.take(anyLong(), anyLong())).thenAnswer(invocation -> {
+            AtomicLong row = rows.get(invocation.<Long>getArgument(0));
+            long quantity = invocation.getArgument(1);
+            long current;
+            do {
+                current = row != null ? row.get() : -1;
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!row.compareAndSet(current, current - quantity));
+            return true;
+        });
+        when(stockRepository.allocate(anyLong(), anyLong())).thenAnswer(invocation -> {
+            allocations.incrementAndGet();
+            AtomicLong row = rows.get(invocation.<Long>getArgument(0));
+            if (row == null) {
+                return null;
+            }
+            long wanted = invocation.getArgument(1);
+            long current;
+            long granted;
+            do {
+                current = row.get();
+                granted = Math.min(current, wanted);
+            } while (!row.compareAndSet(current, current - granted));
+            return granted;
+        });
+        Answer<Void> add = invocation -> {
+            invocation.<Map<Long, Long>>getArgument(0).forEach((productId, delta) ->
+                    rows.computeIfAbsent(productId, id -> new AtomicLong()).addAndGet(delta));
+            return null;
+        };
+        doAnswer(add).when(stockRepository).applyDeltas(anyMap());
+        doAnswer(add).when(stockRepository).restore(anyMap());
+    }
+
+    // Many buyers on one product, some abandoning their hold: units sold never exceed the stock, none go missing,
+    // and product_stock is only touched once per allocation rather than once per sale
+    @Test
+    void testConcurrentReservationsOnHotSkuNeverOversellAndRarelyTouchTheRow() throws Exception {
+        StockLedger ledger = new StockLedger(stockRepository, 60_000, ALLOCATION, 60_000);
+        int threads = 32;
+        int attemptsPerThread = 500;
+        AtomicLong sold = new AtomicLong();
+        AtomicLong refused = new AtomicLong();
+        AtomicInteger reservations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> buyers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                buyers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        StockLedger.Reservation reservation;
+                        try {
+                            reservation = ledger.reserve(HOT_SKU, 1 + random.nextInt(3));
+                        } catch (InsufficientStockException e) {
+                            refused.incrementAndGet();
+                            continue;
+                        }
+                        reservations.incrementAndGet();
+                        if (random.nextInt(5) == 0) {
+                            ledger.complete(reservation, false);
+                        } else {
+                            ledger.confirm(reservation);
+                            ledger.complete(reservation, true);
+                            sold.addAndGet(reservation.getQuantity());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> buyer : buyers) {
+                buyer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(refused.get() > 0, "the test should exhaust the stock");
+        assertTrue(sold.get() <= STOCK);
+        assertEquals(STOCK, sold.get() + ledger.available(HOT_SKU));
+        // Each allocation but the last hands out ALLOCATION units; sold-out rechecks add at most a handful more
+        assertTrue(allocations.get() < reservations.get() / 10,
+                allocations.get() + " allocations for " + reservations.get() + " reservations");
+        ledger.close();
+        assertEquals(STOCK - sold.get(), rows.get(HOT_SKU).get());
+    }
+
+    // Two nodes, each with its own ledger, share product_stock: what one has claimed the other can't sell, until
+    // the first hands back what it didn't use
+    @Test
+    void testSecondNodeCannotSellUnitsTheFirstClaimed() {
+        StockLedger first = new StockLedger(stockRepository, 60_000, STOCK, 60_000);
+        StockLedger second = new StockLedger(stockRepository, 60_000, STOCK, 0);
+        StockLedger.Reservation mine = first.reserve(HOT_SKU, 10);
+        assertThrows(InsufficientStockException.class, () -> second.reserve(HOT_SKU, 1));
+
+        first.confirm(mine);
+        first.complete(mine, true);
+        assertEquals(0, rows.get(HOT_SKU).get());
+        assertEquals(STOCK - 10, first.available(HOT_SKU));
+        assertEquals(0L, second.available(HOT_SKU));
+
+        first.close();
+        assertEquals(STOCK - 10, rows.get(HOT_SKU).get());
+        second.refresh(HOT_SKU);
+        StockLedger.Reservation theirs = second.reserve(HOT_SKU, 1);
+        second.confirm(theirs);
+        second.complete(theirs, true);
+        assertEquals(1, second.returnIdle());
+        assertEquals(STOCK - 11, rows.get(HOT_SKU).get());
+    }
+
+    @Test
+    void testExpiredHoldReturnsStockAndMustWinItBack() {
+        StockLedger ledger = new StockLedger(stockRepository, 0, STOCK, 60_000);
+        StockLedger.Reservation first = ledger.reserve(HOT_SKU, (int) STOCK);
+
+        assertEquals(1, ledger.sweepExpired());
+        assertEquals(STOCK, ledger.available(HOT_SKU));
+
+        StockLedger.Reservation second = ledger.reserve(HOT_SKU, 1);
+        assertThrows(InsufficientStockException.class, () -> ledger.confirm(first));
+        ledger.confirm(second);
+        ledger.complete(second, true);
+        assertEquals(STOCK - 1, ledger.available(HOT_SKU));
+    }
+
+    @Test
+    void testAdjustmentsAreWrittenThroughAndUntrackedProductsAreUnlimited() {
+        StockLedger ledger = new StockLedger(stockRepository, 60_000, ALLOCATION, 60_000);
+
+        assertEquals(5, ledger.adjust(2L, 5));
+        ledger.complete(ledger.reserve(2L, 1), false);
+        // The units this node claimed can be written off too
+        assertEquals(3, ledger.adjust(2L, -2));
+        assertThrows(InsufficientStockException.class, () -> ledger.adjust(2L, -4));
+        assertEquals(3, rows.get(2L).get());
+
+        assertNull(ledger.available(3L));
+        StockLedger.Reservation unlimited = ledger.reserve(3L, Integer.MAX_VALUE);
+        ledger.confirm(unlimited);
+        ledger.complete(unlimited, true);
+        assertFalse(rows.containsKey(3L));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ecommerce.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Collects per-request latencies from many threads and reports throughput and percentiles
+public class LatencyRecorder {
+    private final String name;
+    private long[] latencies;
+    private int count;
+    private final AtomicLong errors = new AtomicLong();
+
+    // The capacity is only a starting size; duration-based scenarios grow the buffer as needed
+    public LatencyRecorder(String name, int capacity) {
+        this.name = name;
+        this.latencies = new long[Math.max(16, capacity)];
+    }
+
+    public void record(long nanos, boolean success) {
+        synchronized (this) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    public String summary(long elapsedNanos) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(latencies, count);
+        }
+        int recorded = sorted.length;
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%-28s requests=%d errors=%d throughput=%.0f req/s p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                name, recorded, errors.get(), recorded / seconds,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                millis(percentile(sorted, 0.99)), millis(recorded == 0 ? 0 : sorted[recorded - 1]));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
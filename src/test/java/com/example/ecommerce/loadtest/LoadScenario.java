@@ -0,0 +1,191 @@
+package com.example.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Scripted shopper sessions against an instance started with seed data:
+ *   java -jar target/ecommerce-0.0.1-SNAPSHOT.jar --spring.profiles.active=seed
+ *   mvn -Ploadtest test-compile exec:java -Dloadtest.main=com.example.ecommerce.loadtest.LoadScenario
+ * Each session logs in as a random seeded user, browses a few product pages, runs a search and checks out.
+ * Checkout goes through POST /api/orders/checkout by default; -Dloadtest.checkout=orders-and-items replays
+ * the older two-call flow (POST /api/orders, then POST /api/order-items/batch as the seeded admin).
+ * Prints throughput and latency percentiles for every endpoint once the measured phase ends.
+ */
+public class LoadScenario {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Words that appear in the seeded product names
+    private static final String[] SEARCH_TERMS = {"lamp", "red+chair", "wireless+headphones", "kettle", "smart+watch"};
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final int seededUsers;
+    private final int seededProducts;
+    private final String password;
+    private final int pagesPerSession;
+    private final boolean splitCheckout;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private String adminToken;
+
+    LoadScenario(String baseUrl, int concurrency, int seededUsers, int seededProducts, String password,
+                 int pagesPerSession, boolean splitCheckout) {
+        this.baseUrl = baseUrl;
+        this.seededUsers = seededUsers;
+        this.seededProducts = seededProducts;
+        this.password = password;
+        this.pagesPerSession = pagesPerSession;
+        this.splitCheckout = splitCheckout;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 50), runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 15);
+        int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 60);
+
+        LoadScenario scenario = new LoadScenario(baseUrl, concurrency,
+                Integer.getInteger("loadtest.seededUsers", 100_000),
+                Integer.getInteger("loadtest.seededProducts", 100_000),
+                System.getProperty("loadtest.password", "Password@123"),
+                Integer.getInteger("loadtest.pagesPerSession", 3),
+                "orders-and-items".equals(System.getProperty("loadtest.checkout", "checkout")));
+        if (scenario.splitCheckout) {
+            scenario.adminToken = scenario.login("user1");
+        }
+
+        scenario.run(Math.min(concurrency, 50), warmupSeconds);
+        scenario.recorders.clear();
+        long elapsed = scenario.run(concurrency, durationSeconds);
+        System.out.println("Shopper sessions x" + concurrency + " for " + durationSeconds + "s");
+        scenario.recorders.values().forEach(recorder -> System.out.println(recorder.summary(elapsed)));
+    }
+
+    long run(int concurrency, int seconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService shoppers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            shoppers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        session();
+                    } catch (Exception e) {
+                        // The failed call is already counted as an error; start a fresh session
+                    }
+                }
+            });
+        }
+        shoppers.shutdown();
+        shoppers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    private void session() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = 1 + random.nextInt(seededUsers);
+        String token = login("user" + userId);
+
+        List<Long> seen = new ArrayList<>();
+        long afterId = random.nextLong(Math.max(1, seededProducts));
+        for (int i = 0; i < pagesPerSession; i++) {
+            JsonNode page = call("GET /api/products/page", get("/api/products/page?size=20&afterId=" + afterId, token));
+            for (JsonNode product : page.get("items")) {
+                seen.add(product.get("id").asLong());
+            }
+            if (page.get("nextAfterId").isNull()) {
+                break;
+            }
+            afterId = page.get("nextAfterId").asLong();
+        }
+        if (seen.isEmpty()) {
+            return;
+        }
+        call("GET /api/products/search", get("/api/products/search?q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)], token));
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            items.add(Map.of("productId", seen.get(random.nextInt(seen.size())), "quantity", 1 + random.nextInt(3)));
+        }
+        if (!splitCheckout) {
+            call("POST /api/orders/checkout", post("/api/orders/checkout",
+                    Map.of("userId", userId, "orderItems", items), token));
+            return;
+        }
+        JsonNode order = call("POST /api/orders", post("/api/orders", Map.of("userId", userId, "status", "PLACED",
+                "orderDate", LocalDateTime.now().toString()), token));
+        // The legacy flow has the client supply prices; the batch endpoint stores whatever it is given
+        List<Map<String, Object>> withOrder = new ArrayList<>();
+        for (Map<String, Object> item : items) {
+            Map<String, Object> copy = new LinkedHashMap<>(item);
+            copy.put("orderId", order.get("id").asLong());
+            copy.put("price", 1);
+            withOrder.add(copy);
+        }
+        call("POST /api/order-items/batch", post("/api/order-items/batch", withOrder, adminToken));
+    }
+
+    private String login(String username) throws Exception {
+        return call("POST /api/auth/login", post("/api/auth/login",
+                Map.of("username", username, "password", password), null)).get("token").asText();
+    }
+
+    // Times one call under the given endpoint name and throws on any non-2xx so the session is abandoned
+    private JsonNode call(String endpoint, HttpRequest request) throws Exception {
+        LatencyRecorder recorder;
+        synchronized (recorders) {
+            recorder = recorders.computeIfAbsent(endpoint, name -> new LatencyRecorder(name, 100_000));
+        }
+        long sent = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            recorder.record(System.nanoTime() - sent, false);
+            throw e;
+        }
+        boolean success = response.statusCode() / 100 == 2;
+        recorder.record(System.nanoTime() - sent, success);
+        if (!success) {
+            throw new IllegalStateException(endpoint + " returned " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    private HttpRequest get(String path, String token) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), token).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body, String token) throws Exception {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+    }
+
+    private static HttpRequest.Builder authorized(HttpRequest.Builder builder, String token) {
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Closed-loop HTTP load against a running instance. Start the app twice and compare the summaries:
+ *   java -jar target/ecommerce-0.0.1-SNAPSHOT.jar
+ *   java -jar target/ecommerce-0.0.1-SNAPSHOT.jar --spring.profiles.active=virtual-threads
+ *   mvn -Ploadtest test-compile exec:java -Dloadtest.concurrency=800
+ */
+public class LoadTestDriver {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private String token;
+
+    LoadTestDriver(String baseUrl, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 50), runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 400);
+        int requests = Integer.getInteger("loadtest.requests", 40_000);
+        int warmup = Integer.getInteger("loadtest.warmup", 5_000);
+        String path = System.getProperty("loadtest.path", "/api/products/page?size=50");
+
+        LoadTestDriver driver = new LoadTestDriver(baseUrl, concurrency);
+        driver.authenticate(System.getProperty("loadtest.username", "loadtest"),
+                System.getProperty("loadtest.password", "Password@123"));
+        driver.seedProducts(Integer.getInteger("loadtest.products", 200));
+
+        driver.run("warmup " + path, path, Math.min(concurrency, 50), warmup);
+        System.out.println(driver.run("GET " + path + " x" + concurrency, path, concurrency, requests));
+    }
+
+    // Registers an admin account on first use so products can be seeded and every request is authenticated
+    void authenticate(String username, String password) throws Exception {
+        send(post("/api/users", Map.of("username", username, "password", password,
+                "email", username + "@loadtest.local", "roles", new String[]{"ADMIN"})));
+        HttpResponse<String> login = send(post("/api/auth/login", Map.of("username", username, "password", password)));
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + login.statusCode() + ": " + login.body());
+        }
+        token = MAPPER.readTree(login.body()).get("token").asText();
+    }
+
+    void seedProducts(int count) throws Exception {
+        HttpResponse<String> page = send(get("/api/products/page?size=" + count));
+        int existing = MAPPER.readTree(page.body()).get("items").size();
+        for (int i = existing; i < count; i++) {
+            send(post("/api/products", Map.of("name", "load-test-product-" + i, "price", 10 + i % 90,
+                    "description", "Seeded by LoadTestDriver")));
+        }
+    }
+
+    String run(String name, String path, int concurrency, int requests) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder(name, requests);
+        AtomicInteger remaining = new AtomicInteger(requests);
+        HttpRequest request = get(path);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    long sent = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    recorder.record(System.nanoTime() - sent, success);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        return recorder.summary(System.nanoTime() - start);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String path) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path))).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) throws Exception {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder) {
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryStatsListenerTest {
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(proxiedDataSource());
+
+    @AfterEach
+    void tearDown() {
+        QueryStats.clear();
+    }
+
+    @Test
+    void testCountsStatementsWhileRequestIsActive() {
+        QueryStats stats = QueryStats.start();
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        jdbcTemplate.queryForObject("SELECT 2", Integer.class);
+        jdbcTemplate.batchUpdate("CREATE TABLE IF NOT EXISTS t (id INT)", "INSERT INTO t VALUES (1)");
+
+        assertEquals(3, stats.getStatements());
+        assertTrue(stats.getNanos() > 0);
+    }
+
+    @Test
+    void testIgnoresStatementsOutsideRequest() {
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        QueryStats stats = QueryStats.start();
+
+        assertEquals(0, stats.getStatements());
+    }
+
+    @Test
+    void testBucketsKeepTagCardinalityLow() {
+        assertEquals("0", MetricsConfig.bucket(0));
+        assertEquals("1", MetricsConfig.bucket(1));
+        assertEquals("2-5", MetricsConfig.bucket(5));
+        assertEquals("11-50", MetricsConfig.bucket(11));
+        assertEquals("50+", MetricsConfig.bucket(5_000));
+    }
+
+    private static DataSource proxiedDataSource() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:querystats;DB_CLOSE_DELAY=-1");
+        return ProxyDataSourceBuilder.create(h2).listener(new QueryStatsListener()).build();
+    }
+}
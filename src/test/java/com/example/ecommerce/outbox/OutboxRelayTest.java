@@ -0,0 +1,153 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.config.SchedulingConfig;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.entity.OrderOutboxEntry;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.inventory.InventoryConfig;
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import com.example.ecommerce.repository.OrderOutboxRepository;
+import com.example.ecommerce.repository.ProductStockRepository;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.impl.InventoryServiceImpl;
+import com.example.ecommerce.service.impl.OrderServiceImpl;
+import com.example.ecommerce.util.OptimisticRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Order changes go through OrderServiceImpl; the relay is driven by hand in the test transaction
+@DataJpaTest
+@Import({OrderServiceImpl.class, DailyRevenueWriter.class, OrderOutboxRepository.class,
+        InventoryServiceImpl.class, InventoryConfig.class, ProductStockRepository.class, OptimisticRetry.class,
+        SchedulingConfig.class})
+class OutboxRelayTest {
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<OrderEvent> received = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder().username("buyer").password("password").email("buyer@testing.com")
+                .roles(Set.of(UserRole.CUSTOMER)).build();
+        entityManager.persist(user);
+    }
+
+    @Test
+    void testOrderLifecycleIsRelayedInOrderAndRemoved() {
+        Long orderId = orderService.createOrder(order("NEW")).getId();
+        orderService.updateOrder(orderId, order("PAID"), null);
+        orderService.updateOrder(orderId, order("PAID"), null);
+        orderService.updateOrder(orderId, order("SHIPPED"), null);
+        orderService.deleteOrder(orderId);
+        OutboxRelay relay = new OutboxRelay(outboxRepository, List.of(sink(received::addAll)), meterRegistry, 2, 5);
+
+        assertEquals(4, relay.drain());
+
+        assertEquals(List.of(OrderEvent.Type.CREATED, OrderEvent.Type.STATUS_CHANGED, OrderEvent.Type.STATUS_CHANGED,
+                OrderEvent.Type.DELETED), received.stream().map(OrderEvent::type).toList());
+        assertEquals("PAID", received.get(1).status());
+        assertEquals("NEW", received.get(1).previousStatus());
+        assertEquals("PAID", received.get(2).previousStatus());
+        assertTrue(received.stream().allMatch(event -> orderId.equals(event.orderId()) && user.getId().equals(event.userId())));
+        assertEquals(List.of(), outboxRepository.findOldest(10));
+        assertEquals(4, meterRegistry.get("outbox.events.relayed").counter().count());
+    }
+
+    @Test
+    void testFailingSinkGetsTheChunkAgainButHealthySinksDoNot() {
+        orderService.createOrder(order("NEW"));
+        boolean[] down = {true};
+        List<OrderEvent> flakyReceived = new ArrayList<>();
+        OrderEventSink flaky = sink("flaky", events -> {
+            if (down[0]) {
+                throw new IllegalStateException("queue unavailable");
+            }
+            flakyReceived.addAll(events);
+        });
+        OutboxRelay relay = new OutboxRelay(outboxRepository, List.of(sink("test", received::addAll), flaky),
+                meterRegistry, 10, 5);
+
+        assertEquals(0, relay.drain());
+        assertEquals(1, outboxRepository.findOldest(10).size());
+        down[0] = false;
+        assertEquals(1, relay.drain());
+
+        assertEquals(1, received.size());
+        assertEquals(received, flakyReceived);
+        assertEquals(1, meterRegistry.get("outbox.relay.failures").tag("sink", "flaky").counter().count());
+        assertEquals(List.of(), outboxRepository.findOldest(10));
+    }
+
+    @Test
+    void testEventASinkKeepsFailingOnIsParkedAndTheRestGoThrough() {
+        Long poisonId = orderService.createOrder(order("NEW")).getId();
+        Long otherId = orderService.createOrder(order("NEW")).getId();
+        orderService.updateOrder(otherId, order("PAID"), null);
+        OrderEventSink picky = sink("picky", events -> {
+            if (events.stream().anyMatch(event -> poisonId.equals(event.orderId()))) {
+                throw new IllegalArgumentException("cannot map order " + poisonId);
+            }
+            received.addAll(events);
+        });
+        OutboxRelay relay = new OutboxRelay(outboxRepository, List.of(picky), meterRegistry, 10, 3);
+
+        assertEquals(0, relay.drain());
+        assertEquals(0, relay.drain());
+        assertEquals(2, relay.drain());
+
+        assertEquals(List.of(otherId, otherId), received.stream().map(OrderEvent::orderId).toList());
+        assertEquals(List.of(), outboxRepository.findOldest(10));
+        assertEquals(1, meterRegistry.get("outbox.events.parked").counter().count());
+        OrderOutboxEntry parked = entityManager.createQuery("from OrderOutboxEntry", OrderOutboxEntry.class)
+                .getSingleResult();
+        assertEquals(poisonId, parked.getOrderId());
+        assertEquals(3, parked.getAttempts());
+        assertNotNull(parked.getParkedAt());
+        assertEquals("picky: cannot map order " + poisonId, parked.getLastError());
+    }
+
+    private OrderDto order(String status) {
+        return OrderDto.builder().userId(user.getId()).orderDate(LocalDateTime.now()).status(status).build();
+    }
+
+    private static OrderEventSink sink(Consumer<List<OrderEvent>> delivery) {
+        return sink("test", delivery);
+    }
+
+    private static OrderEventSink sink(String name, Consumer<List<OrderEvent>> delivery) {
+        return new OrderEventSink() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void deliver(List<OrderEvent> events) {
+                delivery.accept(events);
+            }
+        };
+    }
+}
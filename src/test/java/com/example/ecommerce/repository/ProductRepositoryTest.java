@@ -0,0 +1,66 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ProductRepositoryTest {
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category books;
+    private Category games;
+
+    @BeforeEach
+    void setUp() {
+        books = categoryRepository.save(Category.builder().name("Books").build());
+        games = categoryRepository.save(Category.builder().name("Games").build());
+        for (int i = 0; i < 5; i++) {
+            productRepository.save(Product.builder().name("book" + i).price(BigDecimal.TEN).category(books).build());
+            productRepository.save(Product.builder().name("game" + i).price(BigDecimal.ONE).category(games).build());
+        }
+    }
+
+    @Test
+    void testFindPageAfterWalksAllProductsInIdOrder() {
+        List<ProductDto> first = productRepository.findPageAfter(0L, Limit.of(4));
+        assertEquals(4, first.size());
+
+        List<ProductDto> second = productRepository.findPageAfter(first.get(3).getId(), Limit.of(4));
+        assertEquals(4, second.size());
+        assertTrue(second.get(0).getId() > first.get(3).getId());
+
+        List<ProductDto> last = productRepository.findPageAfter(second.get(3).getId(), Limit.of(4));
+        assertEquals(2, last.size());
+    }
+
+    @Test
+    void testFindPageByCategoryAfter() {
+        List<ProductDto> page = productRepository.findPageByCategoryAfter(games.getId(), 0L, Limit.of(10));
+        assertEquals(5, page.size());
+        assertTrue(page.stream().allMatch(p -> games.getId().equals(p.getCategoryId())));
+        assertEquals("game0", page.get(0).getName());
+    }
+
+    @Test
+    void testStreamAllAsDto() {
+        try (Stream<ProductDto> products = productRepository.streamAllAsDto()) {
+            assertEquals(10, products.count());
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.repository.projection.UserRoleRowView;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -50,6 +54,35 @@ class UserRepositoryTest {
 
     }
 
+    @Test
+    void testPasswordHashIsOnlyReplacedWhileUnchanged() {
+        User user = userRepository.save(User.builder().username("rehash").password("old-hash").email("rehash@testing.com").build());
+        Long version = user.getVersion();
+
+        assertEquals(0, userRepository.replacePasswordHash(user.getId(), "stale-hash", "new-hash"));
+        assertEquals(1, userRepository.replacePasswordHash(user.getId(), "old-hash", "new-hash"));
+        assertEquals(0, userRepository.replacePasswordHash(user.getId(), "old-hash", "newer-hash"));
+
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("new-hash", reloaded.getPassword());
+        assertEquals(version, reloaded.getVersion());
+    }
+
+    @Test
+    void testRoleRowsCoverUsersWithAndWithoutRoles() {
+        User admin = userRepository.save(User.builder().username("admin").password("pass1").email("admin@testing.com")
+                .roles(Set.of(UserRole.ADMIN, UserRole.SUPPORT)).build());
+        User plain = userRepository.save(User.builder().username("plain").password("pass2").email("plain@testing.com").build());
+
+        List<UserRoleRowView> rows = userRepository.findAllRoleRows();
+
+        assertEquals(3, rows.size());
+        assertEquals(Set.of(UserRole.ADMIN, UserRole.SUPPORT), rows.stream()
+                .filter(row -> row.id().equals(admin.getId())).map(UserRoleRowView::role).collect(Collectors.toSet()));
+        assertEquals(List.of(new UserRoleRowView(plain.getId(), "plain", "plain@testing.com", 0L, null)),
+                userRepository.findRoleRowsById(plain.getId()));
+    }
+
     @Test
     void testUpdateUser() {
         // create user
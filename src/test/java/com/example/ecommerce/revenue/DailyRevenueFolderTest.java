@@ -0,0 +1,164 @@
+package com.example.ecommerce.revenue;
+
+import com.example.ecommerce.config.SchedulingConfig;
+import com.example.ecommerce.dto.CheckoutRequestDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.OrderItemDto;
+import com.example.ecommerce.entity.DailyProductRevenue;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.inventory.InventoryConfig;
+import com.example.ecommerce.repository.DailyProductRevenueRepository;
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import com.example.ecommerce.repository.OrderOutboxRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.ProductStockRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.impl.InventoryServiceImpl;
+import com.example.ecommerce.service.impl.OrderServiceImpl;
+import com.example.ecommerce.util.OptimisticRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not in a test transaction: checkouts on several threads must commit side by side. The folder is driven by hand.
+@DataJpaTest(properties = "revenue.fold.interval-ms=0")
+@Import({OrderServiceImpl.class, DailyRevenueWriter.class, OrderOutboxRepository.class, InventoryServiceImpl.class,
+        InventoryConfig.class, ProductStockRepository.class, OptimisticRetry.class, RevenueConfig.class,
+        SimpleMeterRegistry.class, SchedulingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DailyRevenueFolderTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DailyRevenueFolder dailyRevenueFolder;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DailyProductRevenueRepository dailyProductRevenueRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("daily_revenue_delta", "daily_product_revenue", "order_outbox", "order_items", "orders", "products", "user_roles", "users")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void testConcurrentFirstCheckoutsOfTheDayAllSucceed() throws Exception {
+        Product product = productRepository.save(Product.builder().name("lamp").price(new BigDecimal("2.50")).build());
+
+        List<Future<OrderDto>> checkouts = runConcurrently(() -> orderService.checkout(CheckoutRequestDto.builder()
+                .orderItems(List.of(OrderItemDto.builder().productId(product.getId()).quantity(2).build()))
+                .build()));
+        for (Future<OrderDto> checkout : checkouts) {
+            assertNotNull(checkout.get().getId());
+        }
+        assertEquals(0, dailyProductRevenueRepository.count());
+
+        assertEquals(THREADS, dailyRevenueFolder.drain());
+
+        DailyProductRevenue today = dailyProductRevenueRepository.findAll().get(0);
+        assertEquals(LocalDate.now(), today.getDay());
+        assertEquals(2L * THREADS, today.getUnits());
+        assertEquals(0, new BigDecimal("80.00").compareTo(today.getRevenue()));
+    }
+
+    @Test
+    void testOverlappingFoldersCountEachDeltaOnce() throws Exception {
+        Product product = productRepository.save(Product.builder().name("desk").price(BigDecimal.TEN).build());
+        for (int i = 0; i < 50; i++) {
+            orderService.checkout(CheckoutRequestDto.builder()
+                    .orderItems(List.of(OrderItemDto.builder().productId(product.getId()).quantity(1).build()))
+                    .build());
+        }
+
+        runConcurrently(dailyRevenueFolder::drain);
+        dailyRevenueFolder.drain();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_revenue_delta", Long.class));
+        assertEquals(50L, dailyProductRevenueRepository.findAll().get(0).getUnits());
+    }
+
+    @Test
+    void testCancelledOrderDropsOutOfTheReport() {
+        User user = userRepository.save(User.builder().username("buyer").password("password")
+                .email("buyer@testing.com").roles(Set.of(UserRole.CUSTOMER)).build());
+        Product product = productRepository.save(Product.builder().name("chair").price(BigDecimal.TEN).build());
+        OrderDto order = orderService.checkout(CheckoutRequestDto.builder().userId(user.getId())
+                .orderItems(List.of(OrderItemDto.builder().productId(product.getId()).quantity(3).build()))
+                .build());
+        dailyRevenueFolder.drain();
+        assertEquals(3L, dailyProductRevenueRepository.findAll().get(0).getUnits());
+
+        orderService.updateOrder(order.getId(), withStatus(order, "CANCELLED"), null);
+        dailyRevenueFolder.drain();
+        assertEquals(0L, dailyProductRevenueRepository.findAll().get(0).getUnits());
+        assertEquals(0, BigDecimal.ZERO.compareTo(dailyProductRevenueRepository.findAll().get(0).getRevenue()));
+
+        orderService.updateOrder(order.getId(), withStatus(order, "PLACED"), null);
+        dailyRevenueFolder.drain();
+        assertEquals(3L, dailyProductRevenueRepository.findAll().get(0).getUnits());
+
+        orderService.updateOrder(order.getId(), withStatus(order, "CANCELLED"), null);
+        orderService.deleteOrder(order.getId());
+        dailyRevenueFolder.drain();
+        assertEquals(0L, dailyProductRevenueRepository.findAll().get(0).getUnits());
+    }
+
+    private static OrderDto withStatus(OrderDto order, String status) {
+        return OrderDto.builder().userId(order.getUserId()).orderDate(order.getOrderDate()).status(status).build();
+    }
+
+    private <T> List<Future<T>> runConcurrently(Callable<T> task) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.ProductSearchResultDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexTest.class);
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.rebuild(Stream.of(
+                product(1L, "Red running shoes", "Lightweight shoes for road running", 10L),
+                product(2L, "Trail shoes", "Red accents and a grippy sole for running off road", 10L),
+                product(3L, "Red wine glass", "Crystal glass", 20L)));
+    }
+
+    @Test
+    void testSearchRequiresAllTermsAndRanksNameMatchesFirst() {
+        List<ProductSearchResultDto> results = index.search("red running", 10);
+
+        assertEquals(List.of(1L, 2L), results.stream().map(ProductSearchResultDto::getId).toList());
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+        assertEquals("Red running shoes", results.get(0).getName());
+    }
+
+    @Test
+    void testSearchIgnoresCaseStopWordsAndUnknownTerms() {
+        assertEquals(1, index.search("the CRYSTAL", 10).size());
+        assertTrue(index.search("red unicorn", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testUpdateAndRemoveKeepIndexConsistent() {
+        index.index(product(3L, "Blue wine glass", "Crystal glass", 20L));
+        assertTrue(index.search("red glass", 10).isEmpty());
+        assertEquals(1, index.search("blue", 10).size());
+
+        index.remove(1L);
+        assertEquals(List.of(2L), index.search("red", 10).stream().map(ProductSearchResultDto::getId).toList());
+
+        index.removeCategory(10L);
+        assertEquals(1, index.size());
+        assertTrue(index.autocomplete("ru", 10).isEmpty());
+    }
+
+    @Test
+    void testAutocompleteRanksByDocumentFrequency() {
+        assertEquals(List.of("red", "road"), index.autocomplete("R", 2));
+        assertEquals(List.of("running"), index.autocomplete("run", 10));
+    }
+
+    @Test
+    void testAutocompleteRanksEveryMatchingTerm() {
+        // 300 rare terms sort before the common one, which must still come out on top
+        index.rebuild(Stream.concat(
+                IntStream.range(0, 300).mapToObj(i -> product((long) i, String.format("pa%03d", i), null, 1L)),
+                IntStream.range(300, 305).mapToObj(i -> product((long) i, "pz", null, 1L))));
+
+        assertEquals(List.of("pz", "pa000"), index.autocomplete("p", 2));
+    }
+
+    @Test
+    void testWritesDuringRebuildAreKept() {
+        index.rebuild(Stream.of(product(1L, "Red running shoes", null, 10L), product(3L, "Red wine glass", null, 20L))
+                .peek(product -> {
+                    if (product.getId() == 1L) {
+                        index.index(product(4L, "Blue kettle", null, 30L));
+                        index.remove(3L);
+                    }
+                }));
+
+        assertEquals(List.of(4L), index.search("kettle", 10).stream().map(ProductSearchResultDto::getId).toList());
+        assertTrue(index.search("wine", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testLookupLatencyOnLargeCatalog() {
+        int size = 100_000;
+        String[] words = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel", "india", "juliet"};
+        index.rebuild(IntStream.range(0, size).mapToObj(i -> product((long) i,
+                words[i % 10] + " " + words[(i / 10) % 10] + " model" + i,
+                "Product number " + i + " in the " + words[(i / 100) % 10] + " range", (long) (i % 50))));
+
+        int lookups = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertEquals(1, index.search("model" + (i * 17 % size) + " " + words[(i * 17) % 10], 10).size());
+            index.autocomplete("model" + (i % 1000), 10);
+        }
+        long micros = (System.nanoTime() - start) / 1_000 / lookups;
+        log.info("Search plus autocomplete over {} products: {} us per lookup", size, micros);
+        assertEquals(10, index.search("alpha bravo", 10).size());
+    }
+
+    private static ProductDto product(Long id, String name, String description, Long categoryId) {
+        return ProductDto.builder()
+                .id(id)
+                .name(name)
+                .price(BigDecimal.ONE)
+                .description(description)
+                .categoryId(categoryId)
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtVerificationCacheTest {
+    private final JwtVerifier jwtVerifier = mock(JwtVerifier.class);
+
+    @Test
+    void testRepeatedTokenIsVerifiedOnce() {
+        VerifiedToken token = new VerifiedToken("alice", 1, Instant.now().plusSeconds(3600));
+        when(jwtVerifier.verify("a.b.c")).thenReturn(token);
+        JwtVerificationCache cache = new JwtVerificationCache(jwtVerifier, 100, 3_600_000);
+
+        assertSame(token, cache.verify("a.b.c"));
+        assertSame(token, cache.verify("a.b.c"));
+
+        verify(jwtVerifier, times(1)).verify("a.b.c");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testTokensDifferingOnlyInSignatureAreVerifiedSeparately() {
+        when(jwtVerifier.verify(anyString()))
+                .thenAnswer(call -> new VerifiedToken(call.getArgument(0), 1, Instant.now().plusSeconds(3600)));
+        JwtVerificationCache cache = new JwtVerificationCache(jwtVerifier, 100, 3_600_000);
+
+        assertEquals("a.b.c", cache.verify("a.b.c").username());
+        assertEquals("a.b.d", cache.verify("a.b.d").username());
+
+        verify(jwtVerifier, times(2)).verify(anyString());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testExpiredEntryIsVerifiedAgain() throws InterruptedException {
+        when(jwtVerifier.verify("a.b.c"))
+                .thenReturn(new VerifiedToken("alice", 1, Instant.now().plusMillis(50)))
+                .thenReturn(new VerifiedToken("alice", 1, Instant.now().plusSeconds(3600)));
+        JwtVerificationCache cache = new JwtVerificationCache(jwtVerifier, 100, 3_600_000);
+
+        cache.verify("a.b.c");
+        Thread.sleep(100);
+        VerifiedToken second = cache.verify("a.b.c");
+
+        verify(jwtVerifier, times(2)).verify("a.b.c");
+        assertFalse(second.isExpired(Instant.now()));
+    }
+
+    @Test
+    void testSizeIsBoundedByMaxSize() {
+        when(jwtVerifier.verify(anyString()))
+                .thenAnswer(call -> new VerifiedToken(call.getArgument(0), 1, Instant.now().plusSeconds(3600)));
+        JwtVerificationCache cache = new JwtVerificationCache(jwtVerifier, 2, 3_600_000);
+
+        for (int i = 0; i < 20; i++) {
+            cache.verify("token-" + i);
+        }
+
+        assertTrue(cache.size() <= 2);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+    private static final String SECRET = "2QamorOkO8ewd4R9pZ96XGmlRL+kJk+jdrYJhIMMc4w=";
+
+    private final JwtVerifier verifier = new JwtVerifier(SECRET);
+
+    @Test
+    void testVerifiesTokensIssuedByJwtUtil() {
+        JwtUtil jwtUtil = jwtUtil(3_600_000L);
+        String token = jwtUtil.generateToken("alice", Set.of(UserRole.SELLER));
+
+        VerifiedToken verified = verifier.verify(token);
+
+        assertEquals("alice", verified.username());
+        assertEquals(List.of(UserRole.SELLER), verified.roles());
+        assertEquals(jwtUtil.extractExpiration(token).toInstant(), verified.expiresAt());
+    }
+
+    @Test
+    void testReadsEscapedSubjectAndIgnoresUnknownClaimsAndRoles() {
+        String token = Jwts.builder()
+                .setHeaderParam("typ", "JWT")
+                .setSubject("o'\"brien\\ é")
+                .claim("profile", Map.of("roles", List.of("ADMIN"), "tags", List.of(1, 2)))
+                .claim("roles", List.of("ADMIN", "SUPERUSER"))
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .compact();
+
+        VerifiedToken verified = verifier.verify(token);
+
+        assertEquals("o'\"brien\\ é", verified.username());
+        assertEquals(List.of(UserRole.ADMIN), verified.roles());
+    }
+
+    @Test
+    void testPrefersRoleMaskAndFallsBackToLegacyRolesClaim() {
+        String legacy = Jwts.builder()
+                .setSubject("bob")
+                .claim("roles", List.of("SUPPORT", "CUSTOMER"))
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .compact();
+        String masked = Jwts.builder()
+                .setSubject("bob")
+                .claim("roles", List.of("CUSTOMER"))
+                .claim("rm", RoleAuthorities.bit(UserRole.ADMIN))
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .compact();
+
+        VerifiedToken fromRoles = verifier.verify(legacy);
+        VerifiedToken fromMask = verifier.verify(masked);
+
+        assertEquals(List.of(UserRole.CUSTOMER, UserRole.SUPPORT), fromRoles.roles());
+        assertEquals(List.of(UserRole.ADMIN), fromMask.roles());
+        assertSame(RoleAuthorities.authorities(fromRoles.roleMask()), fromRoles.authentication().getAuthorities());
+        assertEquals("ROLE_ADMIN", fromMask.authentication().getAuthorities().get(0).getAuthority());
+    }
+
+    @Test
+    void testRejectsTamperedSignature() {
+        String token = jwtUtil(3_600_000L).generateToken("alice", Set.of(UserRole.CUSTOMER));
+        String forged = jwtUtil(3_600_000L).generateToken("mallory", Set.of(UserRole.ADMIN));
+        String tampered = forged.substring(0, forged.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertThrows(SignatureException.class, () -> verifier.verify(tampered));
+    }
+
+    @Test
+    void testRejectsExpiredAndMalformedTokens() {
+        String expired = jwtUtil(-1_000L).generateToken("alice", Set.of(UserRole.CUSTOMER));
+        String unsigned = Jwts.builder().setSubject("alice").compact();
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(expired));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(unsigned));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify("not-a-token"));
+    }
+
+    @Test
+    void testRejectsSignedPayloadsThatAreNotValidJson() {
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(signed("{\"sub\":\"a\\u12")));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(signed("{\"sub\":\"a\\u12\"}")));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(signed("{\"sub\":\"a\\")));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(signed("{\"sub\":\"a\",\"exp\":1} x")));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(signed("[\"sub\"]")));
+    }
+
+    // Signs the payload as given, so it can be anything a forger holding the key could produce
+    private static String signed(String payload) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String content = encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(SECRET), "HmacSHA256"));
+        return content + "." + encoder.encodeToString(mac.doFinal(content.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static JwtUtil jwtUtil(long expiration) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "EXPIRATION_TIME", expiration);
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.config.SecurityConfig;
+import com.example.ecommerce.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+    @Test
+    void testLegacyHashesMatchAndAreUpgraded() {
+        PasswordEncoder encoder = passwordEncoder(6);
+        String legacy = new BCryptPasswordEncoder(4).encode("Password@123");
+
+        assertTrue(encoder.matches("Password@123", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+
+        String current = encoder.encode("Password@123");
+        assertTrue(current.startsWith("{bcrypt}$2a$06$"));
+        assertFalse(encoder.upgradeEncoding(current));
+        // Raising the configured cost marks existing hashes for upgrade
+        assertTrue(passwordEncoder(8).upgradeEncoding(current));
+    }
+
+    @Test
+    void testHashingRunsOnPoolAndRecordsMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHasher hasher = new PasswordHasher(passwordEncoder(4), registry, 2, 4, 5000);
+
+        String hash = hasher.encode("Password@123");
+        assertTrue(hasher.matches("Password@123", hash));
+        assertFalse(hasher.matches("wrong", hash));
+
+        assertEquals(2, registry.get("auth.password.hash").tag("operation", "matches").timer().count());
+        assertEquals(1, registry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(0, registry.get("auth.password.hash.queue").gauge().value());
+        hasher.shutdown();
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHasher hasher = new PasswordHasher(blocking, registry, 1, 1, 5000);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> hasher.matches("a", "b"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> hasher.matches("a", "b"));
+        waitForQueueDepth(registry, 1);
+
+        assertThrows(TooManyRequestsException.class, () -> hasher.matches("a", "b"));
+        assertEquals(1, registry.get("auth.password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        hasher.shutdown();
+    }
+
+    private static void waitForQueueDepth(SimpleMeterRegistry registry, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.get("auth.password.hash.queue").gauge().value() < depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static PasswordEncoder passwordEncoder(int strength) {
+        SecurityConfig config = new SecurityConfig();
+        ReflectionTestUtils.setField(config, "bcryptStrength", strength);
+        return config.passwordEncoder();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.catalog.CatalogVersion;
+import com.example.ecommerce.config.CacheConfig;
+import com.example.ecommerce.dto.CategoryDto;
+import com.example.ecommerce.search.ProductSearchIndex;
+import com.example.ecommerce.service.impl.CategoryServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({CategoryServiceImpl.class, CacheConfig.class, ProductSearchIndex.class, CatalogVersion.class})
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE) // Test slices default to a no-op cache
+class CategoryServiceCacheTest {
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void testGetCategoryByIdIsCachedAndEvictedOnUpdate() {
+        Long id = categoryService.createCategory(CategoryDto.builder().name("Books").build()).getId();
+
+        categoryService.getCategoryById(id);
+        assertNotNull(cacheManager.getCache(CacheConfig.CATEGORY).get(id));
+
+        categoryService.updateCategory(id, CategoryDto.builder().name("Novels").build());
+        assertNull(cacheManager.getCache(CacheConfig.CATEGORY).get(id));
+        assertEquals("Novels", categoryService.getCategoryById(id).getName());
+    }
+
+    @Test
+    void testAllCategoriesListIsEvictedOnCreate() {
+        categoryService.createCategory(CategoryDto.builder().name("Books").build());
+        List<CategoryDto> before = categoryService.getAllCategories();
+        assertSame(before, categoryService.getAllCategories());
+
+        categoryService.createCategory(CategoryDto.builder().name("Games").build());
+        assertEquals(before.size() + 1, categoryService.getAllCategories().size());
+    }
+
+    @Test
+    void testMissingCategoryIsNotCached() {
+        assertNull(categoryService.getCategoryById(404L));
+        assertNull(cacheManager.getCache(CacheConfig.CATEGORY).get(404L));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.OrderItemDto;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.exception.EntityNotFoundException;
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import com.example.ecommerce.repository.OrderItemRepository;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.impl.OrderItemServiceImpl;
+import com.example.ecommerce.util.OptimisticRetry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs without a test transaction so every service call commits on its own, as it would in production
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import({OrderItemServiceImpl.class, DailyRevenueWriter.class, OptimisticRetry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderItemServiceJpaTest {
+    private static final Logger log = LoggerFactory.getLogger(OrderItemServiceJpaTest.class);
+    private static final int ITEM_COUNT = 2_000;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Order order;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        order = orderRepository.save(Order.builder().orderDate(LocalDateTime.now()).status("NEW").build());
+        product = productRepository.save(Product.builder().name("widget").price(BigDecimal.TEN).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderItemRepository.deleteAllInBatch();
+        orderRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testCreateOrderItemUsesOrderId() {
+        OrderItemDto created = orderItemService.createOrderItem(item());
+        assertEquals(order.getId(), orderItemRepository.findById(created.getId()).orElseThrow().getOrder().getId());
+    }
+
+    @Test
+    void testCreateOrderItemsBatchesInserts() {
+        statistics.clear();
+        long start = System.nanoTime();
+        List<OrderItemDto> created = orderItemService.createOrderItems(items(ITEM_COUNT));
+        long batchNanos = System.nanoTime() - start;
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(ITEM_COUNT, created.size());
+        assertTrue(created.stream().allMatch(item -> item.getId() != null));
+        assertEquals(ITEM_COUNT, orderItemRepository.count());
+        // Two lookups plus one insert batch and one sequence call per 50 rows
+        assertTrue(batchStatements <= 2 + 2 * (ITEM_COUNT / 50) + 2, "statements: " + batchStatements);
+
+        statistics.clear();
+        start = System.nanoTime();
+        for (OrderItemDto item : items(ITEM_COUNT)) {
+            orderItemService.createOrderItem(item);
+        }
+        long singleNanos = System.nanoTime() - start;
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        log.info("Order item ingestion of {} rows: batch {} items/s in {} statements, single {} items/s in {} statements",
+                ITEM_COUNT, rate(batchNanos), batchStatements, rate(singleNanos), singleStatements);
+        assertTrue(batchStatements * 10 < singleStatements);
+    }
+
+    @Test
+    void testCreateOrderItemsRejectsUnknownReferences() {
+        OrderItemDto unknown = item();
+        unknown.setProductId(404L);
+
+        assertThrows(EntityNotFoundException.class, () -> orderItemService.createOrderItems(List.of(item(), unknown)));
+    }
+
+    private List<OrderItemDto> items(int count) {
+        List<OrderItemDto> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(item());
+        }
+        return items;
+    }
+
+    private OrderItemDto item() {
+        return OrderItemDto.builder()
+                .orderId(order.getId())
+                .productId(product.getId())
+                .quantity(1)
+                .price(BigDecimal.TEN)
+                .build();
+    }
+
+    private static long rate(long nanos) {
+        return ITEM_COUNT * 1_000_000_000L / Math.max(1, nanos);
+    }
+}
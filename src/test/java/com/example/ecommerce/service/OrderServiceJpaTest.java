@@ -0,0 +1,235 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.config.SchedulingConfig;
+import com.example.ecommerce.dto.CheckoutRequestDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.OrderItemDto;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserRole;
+import com.example.ecommerce.exception.EntityNotFoundException;
+import com.example.ecommerce.exception.InsufficientStockException;
+import com.example.ecommerce.inventory.InventoryConfig;
+import com.example.ecommerce.repository.DailyRevenueWriter;
+import com.example.ecommerce.repository.OrderOutboxRepository;
+import com.example.ecommerce.repository.ProductStockRepository;
+import com.example.ecommerce.service.impl.InventoryServiceImpl;
+import com.example.ecommerce.service.impl.OrderServiceImpl;
+import com.example.ecommerce.util.OptimisticRetry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs OrderServiceImpl against H2 and counts the JDBC statements it issues
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({OrderServiceImpl.class, DailyRevenueWriter.class, OrderOutboxRepository.class,
+        InventoryServiceImpl.class, InventoryConfig.class, ProductStockRepository.class, OptimisticRetry.class,
+        SchedulingConfig.class})
+class OrderServiceJpaTest {
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Product product;
+    private int userCount;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        product = Product.builder().name("widget").price(BigDecimal.TEN).build();
+        entityManager.persist(product);
+    }
+
+    @Test
+    void testGetAllOrdersIssuesFixedNumberOfQueries() {
+        createOrders(3);
+        assertEquals(2, countStatements(() -> assertEquals(3, orderService.getAllOrders().size())));
+
+        createOrders(12);
+        assertEquals(2, countStatements(() -> assertEquals(15, orderService.getAllOrders().size())));
+    }
+
+    @Test
+    void testGetAllOrdersFillsUserIdAndItems() {
+        createOrders(2);
+        entityManager.clear();
+
+        List<OrderDto> orders = orderService.getAllOrders();
+
+        assertEquals(2, orders.size());
+        for (OrderDto order : orders) {
+            assertNotNull(order.getUserId());
+            assertEquals(2, order.getOrderItems().size());
+            assertTrue(order.getOrderItems().stream().allMatch(item -> product.getId().equals(item.getProductId())));
+        }
+    }
+
+    @Test
+    void testGetOrderByIdIssuesFixedNumberOfQueries() {
+        Long orderId = createOrders(1).get(0).getId();
+
+        assertEquals(2, countStatements(() -> {
+            OrderDto order = orderService.getOrderById(orderId);
+            assertEquals(orderId, order.getId());
+            assertEquals(2, order.getOrderItems().size());
+        }));
+    }
+
+    @Test
+    void testGetOrderByIdReturnsNullWhenMissing() {
+        assertNull(orderService.getOrderById(404L));
+    }
+
+    @Test
+    void testCheckoutSnapshotsProductPrices() {
+        User user = createUser();
+        OrderDto placed = orderService.checkout(checkoutRequest(user, 3));
+
+        assertNotNull(placed.getId());
+        assertEquals("PLACED", placed.getStatus());
+        assertEquals(3, placed.getOrderItems().size());
+        assertTrue(placed.getOrderItems().stream().allMatch(item -> item.getId() != null
+                && BigDecimal.TEN.compareTo(item.getPrice()) == 0));
+
+        entityManager.clear();
+        assertEquals(3, orderService.getOrderById(placed.getId()).getOrderItems().size());
+    }
+
+    @Test
+    void testCheckoutIssuesSameNumberOfStatementsRegardlessOfItemCount() {
+        User user = createUser();
+        CheckoutRequestDto small = checkoutRequest(user, 3);
+        CheckoutRequestDto large = checkoutRequest(user, 30);
+
+        long smallStatements = countStatements(() -> orderService.checkout(small));
+        long largeStatements = countStatements(() -> orderService.checkout(large));
+
+        // At most one extra sequence call when the pooled id block runs out
+        assertTrue(largeStatements <= smallStatements + 1, smallStatements + " vs " + largeStatements);
+    }
+
+    @Test
+    void testCheckoutRejectsUnknownProductWithoutWriting() {
+        CheckoutRequestDto request = checkoutRequest(createUser(), 1);
+        request.getOrderItems().add(OrderItemDto.builder().productId(404L).quantity(1).build());
+
+        EntityNotFoundException e = assertThrows(EntityNotFoundException.class, () -> orderService.checkout(request));
+        assertEquals("Product not found with ids: [404]", e.getMessage());
+        assertEquals(0, orderService.getAllOrders().size());
+    }
+
+    @Test
+    void testCheckoutMergesLinesForTheSameProduct() {
+        CheckoutRequestDto request = checkoutRequest(createUser(), 0);
+        // Identical lines on purpose: both count
+        request.getOrderItems().add(OrderItemDto.builder().productId(product.getId()).quantity(2).build());
+        request.getOrderItems().add(OrderItemDto.builder().productId(product.getId()).quantity(2).build());
+
+        OrderDto placed = orderService.checkout(request);
+
+        assertEquals(1, placed.getOrderItems().size());
+        assertEquals(4, placed.getOrderItems().iterator().next().getQuantity());
+    }
+
+    @Test
+    void testCheckoutRejectsItemWithoutProductId() {
+        CheckoutRequestDto request = checkoutRequest(createUser(), 1);
+        request.getOrderItems().add(OrderItemDto.builder().quantity(1).build());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> orderService.checkout(request));
+        assertTrue(e.getMessage().contains("productId"));
+        assertEquals(0, orderService.getAllOrders().size());
+    }
+
+    @Test
+    void testCheckoutRejectsEmptyOrder() {
+        CheckoutRequestDto request = CheckoutRequestDto.builder().userId(createUser().getId()).orderItems(new ArrayList<>()).build();
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.checkout(request));
+    }
+
+    @Test
+    void testCheckoutReservesTrackedStock() {
+        CheckoutRequestDto request = checkoutRequest(createUser(), 2);
+        Long trackedId = request.getOrderItems().stream().filter(item -> item.getQuantity() == 2).findFirst()
+                .orElseThrow().getProductId();
+        inventoryService.adjustStock(trackedId, 3);
+
+        orderService.checkout(request);
+        assertEquals(1L, inventoryService.getStock(trackedId).getAvailable());
+
+        // The second order needs 2 of the remaining 1 and is refused as a whole
+        CheckoutRequestDto second = checkoutRequest(createUser(), 0);
+        second.getOrderItems().add(OrderItemDto.builder().productId(product.getId()).quantity(5).build());
+        second.getOrderItems().add(OrderItemDto.builder().productId(trackedId).quantity(2).build());
+        assertThrows(InsufficientStockException.class, () -> orderService.checkout(second));
+        assertEquals(1L, inventoryService.getStock(trackedId).getAvailable());
+        assertNull(inventoryService.getStock(product.getId()).getAvailable());
+    }
+
+    private CheckoutRequestDto checkoutRequest(User user, int itemCount) {
+        List<OrderItemDto> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            Product extra = Product.builder().name("widget" + i).price(BigDecimal.TEN).build();
+            entityManager.persist(extra);
+            // Client-supplied prices are ignored in favour of the catalog price
+            items.add(OrderItemDto.builder().productId(extra.getId()).quantity(1 + i).price(BigDecimal.ONE).build());
+        }
+        entityManager.flush();
+        return CheckoutRequestDto.builder().userId(user.getId()).orderItems(items).build();
+    }
+
+    private User createUser() {
+        User user = User.builder()
+                .username("user" + userCount++)
+                .password("password")
+                .email("user@testing.com")
+                .roles(Set.of(UserRole.CUSTOMER))
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private List<Order> createOrders(int count) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = createUser();
+            Order order = Order.builder().user(user).orderDate(LocalDateTime.now()).status("NEW").build();
+            entityManager.persist(order);
+            for (int j = 0; j < 2; j++) {
+                entityManager.persist(OrderItem.builder().order(order).product(product).quantity(1 + j).price(BigDecimal.ONE).build());
+            }
+            orders.add(order);
+        }
+        entityManager.flush();
+        return orders;
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -6,13 +6,17 @@ import com.example.ecommerce.entity.User;
 import com.example.ecommerce.entity.UserRole;
 import com.example.ecommerce.exception.EntityNotFoundException;
 import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.repository.projection.UserRoleRowView;
 import com.example.ecommerce.service.impl.UserServiceImpl;
+import com.example.ecommerce.util.OptimisticRetry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -28,28 +32,26 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(TransactionOperations.withoutTransaction(), 3, 0);
+
     @InjectMocks
     private UserServiceImpl userService;
 
     @Test
     void testFindUserById() {
-        User user = User.builder()
-                .id(1L)
-                .username("serviceuser")
-                .password("servicepass")
-                .email("service@testing.com")
-                .build();
-
-        when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(user));
+        when(userRepository.findRoleRowsById(1L)).thenReturn(java.util.List.of(
+                new UserRoleRowView(1L, "serviceuser", "service@testing.com", 0L, UserRole.CUSTOMER),
+                new UserRoleRowView(1L, "serviceuser", "service@testing.com", 0L, UserRole.SELLER)));
 
         UserDto result = userService.getUserById(1L);
 
         assertNotNull(result);
         assertEquals("serviceuser", result.getUsername());
-        assertEquals("servicepass", user.getPassword());
         assertEquals("service@testing.com", result.getEmail());
+        assertEquals(Set.of(UserRole.CUSTOMER, UserRole.SELLER), result.getRoles());
 
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findRoleRowsById(1L);
     }
 
     @Test
@@ -86,15 +88,18 @@ class UserServiceTest {
 
     @Test
     void testGetAllUsers() {
-        User user1 = User.builder().id(1L).username("user1").email("user1@testing.com").build();
-        User user2 = User.builder().id(2L).username("user2").email("user2@testing.com").build();
-        when(userRepository.findAll()).thenReturn(java.util.List.of(user1, user2));
+        when(userRepository.findAllRoleRows()).thenReturn(java.util.List.of(
+                new UserRoleRowView(1L, "user1", "user1@testing.com", 0L, UserRole.ADMIN),
+                new UserRoleRowView(2L, "user2", "user2@testing.com", 3L, null)));
 
         java.util.List<UserDto> users = userService.getAllUsers();
 
         assertEquals(2, users.size());
         assertEquals("user1", users.get(0).getUsername());
         assertEquals("user2", users.get(1).getUsername());
+        assertEquals(Set.of(UserRole.ADMIN), users.get(0).getRoles());
+        assertEquals(3L, users.get(1).getVersion());
+        assertTrue(users.get(1).getRoles().isEmpty());
     }
 
     @Test
@@ -104,12 +109,13 @@ class UserServiceTest {
 
         // Assuming UserUpdateDto exists and has builder
         com.example.ecommerce.dto.UserUpdateDto updateDto = com.example.ecommerce.dto.UserUpdateDto.builder().email("new@testing.com").build();
-        User updatedUser = User.builder().id(1L).username("olduser").email("new@testing.com").build();
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+        User updatedUser = User.builder().id(1L).username("olduser").email("new@testing.com").version(1L).build();
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(updatedUser);
 
-        UserDto result = userService.updateUser(1L, updateDto);
+        UserDto result = userService.updateUser(1L, updateDto, null);
 
         assertEquals("new@testing.com", result.getEmail());
+        assertEquals(1L, result.getVersion());
     }
 
     @Test
@@ -117,7 +123,7 @@ class UserServiceTest {
         when(userRepository.findById(99L)).thenReturn(java.util.Optional.empty());
         com.example.ecommerce.dto.UserUpdateDto updateDto = com.example.ecommerce.dto.UserUpdateDto.builder().email("new@testing.com").build();
 
-        assertThrows(EntityNotFoundException.class, () -> userService.updateUser(99L, updateDto));
+        assertThrows(EntityNotFoundException.class, () -> userService.updateUser(99L, updateDto, null));
     }
 
     @Test
@@ -127,7 +133,7 @@ class UserServiceTest {
         com.example.ecommerce.dto.UserUpdateDto updateDto = com.example.ecommerce.dto.UserUpdateDto.builder().build(); // No fields set
 
         // Assuming validation throws exception for no fields
-        assertThrows(RuntimeException.class, () -> userService.updateUser(1L, updateDto));
+        assertThrows(RuntimeException.class, () -> userService.updateUser(1L, updateDto, null));
     }
 
     @Test
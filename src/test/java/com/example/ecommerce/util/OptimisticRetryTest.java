@@ -0,0 +1,92 @@
+package com.example.ecommerce.util;
+
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.exception.PreconditionFailedException;
+import com.example.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not in a test transaction: each update must really commit for versions to conflict
+@DataJpaTest
+@Import(OptimisticRetry.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OptimisticRetryTest {
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = productRepository.save(Product.builder().name("lamp").price(BigDecimal.TEN).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void testConflictIsRetriedWithoutLosingEitherUpdate() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Product updated = optimisticRetry.update(null, () -> repriceWhileAnotherWriterCommits(attempts));
+
+        assertEquals(2, attempts.get());
+        Product stored = productRepository.findById(productId).orElseThrow();
+        assertEquals(0, BigDecimal.ONE.compareTo(stored.getPrice()));
+        assertEquals("from another writer", stored.getDescription());
+        assertEquals(2L, stored.getVersion());
+        assertEquals(2L, updated.getVersion());
+    }
+
+    @Test
+    void testExpectedVersionTurnsConflictsIntoPreconditionFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(PreconditionFailedException.class,
+                () -> optimisticRetry.update(Set.of(0L), () -> repriceWhileAnotherWriterCommits(attempts)));
+        assertEquals(1, attempts.get());
+
+        assertThrows(PreconditionFailedException.class, () -> optimisticRetry.update(Set.of(0L), () -> {
+            Product current = productRepository.findById(productId).orElseThrow();
+            OptimisticRetry.requireVersion(Set.of(0L), current.getVersion(), "Product " + productId);
+            return current;
+        }));
+        assertEquals(0, BigDecimal.TEN.compareTo(productRepository.findById(productId).orElseThrow().getPrice()));
+    }
+
+    // Only the first attempt races: another transaction commits between this one's read and its write
+    private Product repriceWhileAnotherWriterCommits(AtomicInteger attempts) {
+        Product current = productRepository.findById(productId).orElseThrow();
+        if (attempts.incrementAndGet() == 1) {
+            TransactionTemplate other = new TransactionTemplate(transactionManager);
+            other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            other.executeWithoutResult(status ->
+                    productRepository.findById(productId).orElseThrow().setDescription("from another writer"));
+        }
+        current.setPrice(BigDecimal.ONE);
+        return productRepository.saveAndFlush(current);
+    }
+}